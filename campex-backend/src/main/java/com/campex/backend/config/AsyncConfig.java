@@ -0,0 +1,94 @@
+package com.campex.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named, bounded executors for @Async work, one per kind of task so a burst of one can't starve the others.
+ * Pushes and emails don't run here: they are durable jobs (JobQueue / JobWorker).
+ * <ul>
+ *   <li>moderation - image safety checks; a full queue rejects the check (the client retries)</li>
+ * </ul>
+ * Sizes come from app.async.&lt;name&gt;.core-size / max-size / queue-capacity. Each executor publishes
+ * Micrometer's executor.* metrics (queued, active, pool size, completed) plus task wait and run timers and a
+ * rejection counter tagged with its name. On shutdown (SIGTERM) executors stop taking tasks and drain their
+ * queues for up to app.async.await-termination-seconds.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
+
+    public static final String MODERATION_EXECUTOR = "moderationExecutor";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    @Bean(name = MODERATION_EXECUTOR)
+    public ThreadPoolTaskExecutor moderationExecutor() {
+        return executor("moderation", 2, 4, 20, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // @Async methods without an executor name
+    @Override
+    public Executor getAsyncExecutor() {
+        return moderationExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (e, method, params) -> log.error("Async task {} failed: {}", method.getName(), e.getMessage(), e);
+    }
+
+    private ThreadPoolTaskExecutor executor(String name, int coreSize, int maxSize, int queueCapacity,
+                                            RejectedExecutionHandler rejectionPolicy) {
+        String prefix = "app.async." + name + ".";
+        Tags tags = Tags.of("name", name);
+        Counter rejected = Counter.builder("campex.executor.rejected").tags(tags)
+                .description("Tasks that found the queue full (run by the caller or dropped)").register(meterRegistry);
+        Timer waitTimer = Timer.builder("campex.executor.task.wait").tags(tags)
+                .description("Time tasks spent queued").register(meterRegistry);
+        Timer runTimer = Timer.builder("campex.executor.task.run").tags(tags)
+                .description("Time tasks spent running").register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(environment.getProperty(prefix + "core-size", Integer.class, coreSize));
+        executor.setMaxPoolSize(environment.getProperty(prefix + "max-size", Integer.class, maxSize));
+        executor.setQueueCapacity(environment.getProperty(prefix + "queue-capacity", Integer.class, queueCapacity));
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            rejectionPolicy.rejectedExecution(task, pool);
+        });
+        executor.setTaskDecorator(task -> {
+            long queuedAt = System.nanoTime();
+            return () -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                runTimer.record(task);
+            };
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(
+                environment.getProperty("app.async.await-termination-seconds", Integer.class, 30));
+        executor.initialize();
+
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+}
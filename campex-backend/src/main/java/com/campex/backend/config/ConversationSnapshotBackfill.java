@@ -0,0 +1,75 @@
+package com.campex.backend.config;
+
+import com.campex.backend.service.MessageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the last-message snapshot and unread counter columns on conversations that predate them (or were
+ * written by an older instance during a rolling deploy). Walks conversation ids in fixed windows so each
+ * UPDATE stays short, and only touches rows whose columns are still empty, so re-runs are cheap no-ops.
+ */
+@Component
+@Order(1)
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationSnapshotBackfill implements ApplicationRunner {
+
+    private static final int WINDOW_SIZE = 1000;
+
+    private static final String BACKFILL_WINDOW =
+            "UPDATE conversations c SET " +
+            "last_message_id = lm.id, " +
+            "last_message_preview = LEFT(lm.content, " + MessageService.PREVIEW_LENGTH + "), " +
+            "last_message_sender_id = lm.sender_id, " +
+            "last_message_read = lm.is_read " +
+            "FROM conversations src " +
+            "CROSS JOIN LATERAL (SELECT m.id, m.content, m.sender_id, m.is_read FROM messages m " +
+            "  WHERE m.conversation_id = src.id ORDER BY m.created_at DESC, m.id DESC LIMIT 1) lm " +
+            "WHERE c.id = src.id AND src.id > ? AND src.id <= ? AND src.last_message_id IS NULL";
+
+    private static final String BACKFILL_COUNTERS_WINDOW =
+            "UPDATE conversations c SET " +
+            "user1_unread_count = COALESCE(c.user1_unread_count, (SELECT COUNT(*) FROM messages m " +
+            "  WHERE m.conversation_id = c.id AND m.receiver_id = c.user1_id AND m.is_read = FALSE)), " +
+            "user2_unread_count = COALESCE(c.user2_unread_count, (SELECT COUNT(*) FROM messages m " +
+            "  WHERE m.conversation_id = c.id AND m.receiver_id = c.user2_id AND m.is_read = FALSE)) " +
+            "WHERE c.id > ? AND c.id <= ? AND (c.user1_unread_count IS NULL OR c.user2_unread_count IS NULL)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        backfill("last-message snapshot", "last_message_id IS NULL", BACKFILL_WINDOW);
+        backfill("unread counters", "user1_unread_count IS NULL OR user2_unread_count IS NULL",
+                BACKFILL_COUNTERS_WINDOW);
+    }
+
+    private void backfill(String what, String pendingCondition, String windowUpdate) {
+        try {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM conversations WHERE " + pendingCondition, Long.class);
+            if (maxId == null) {
+                return;
+            }
+            Long minId = jdbcTemplate.queryForObject(
+                    "SELECT MIN(id) FROM conversations WHERE " + pendingCondition, Long.class);
+
+            int updated = 0;
+            for (long from = minId - 1; from < maxId; from += WINDOW_SIZE) {
+                updated += jdbcTemplate.update(windowUpdate, from, Math.min(from + WINDOW_SIZE, maxId));
+            }
+            if (updated > 0) {
+                log.info("Backfilled {} on {} conversations", what, updated);
+            }
+        } catch (Exception e) {
+            // Don't block startup - unfilled conversations just show no last message / zero unread
+            log.error("Failed to backfill conversation {}: {}", what, e.getMessage());
+        }
+    }
+}
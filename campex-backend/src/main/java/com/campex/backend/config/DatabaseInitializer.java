@@ -0,0 +1,166 @@
+package com.campex.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Applies PostgreSQL specific schema objects that Hibernate's ddl-auto=update cannot express
+ * (generated columns, GIN/trigram indexes, extensions).
+ * Every statement is idempotent, so it is safe to run on each startup. The conversation uniqueness
+ * migration is the exception: it runs once, guarded by the index it creates.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseInitializer implements ApplicationRunner {
+
+    // Conversations sharing a participant pair (in either order) and product, with the id of the oldest one
+    private static final String DUPLICATE_CONVERSATIONS =
+            "SELECT id, MIN(id) OVER (PARTITION BY LEAST(user1_id, user2_id), GREATEST(user1_id, user2_id), " +
+            "COALESCE(product_id, 0)) AS keep_id FROM conversations WHERE deleted_at IS NULL";
+
+    private static final List<String> STATEMENTS = List.of(
+            // Trigram matching for typo tolerant product search
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+
+            // Full-text search document for products, maintained by Postgres on every write
+            "ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector " +
+            "GENERATED ALWAYS AS (" +
+            "setweight(to_tsvector('simple', coalesce(title, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(category, '')), 'B') || " +
+            "setweight(to_tsvector('simple', coalesce(description, '')), 'C')" +
+            ") STORED",
+            "CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_products_title_trgm ON products USING GIN (lower(title) gin_trgm_ops)",
+
+            // Keyset pagination of the feed: (status[, category], created_at, id) matches the cursor ordering
+            "CREATE INDEX IF NOT EXISTS idx_products_status_created_at_id " +
+            "ON products (status, created_at DESC, id DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_products_status_category_created_at_id " +
+            "ON products (status, category, created_at DESC, id DESC)",
+
+            // Price sorts: (status[, category], effective price, id) matches the price keyset ordering, so
+            // price_asc/price_desc pages are index range scans in either direction
+            "CREATE INDEX IF NOT EXISTS idx_products_status_price_id " +
+            "ON products (status, (COALESCE(price, 0)), id)",
+            "CREATE INDEX IF NOT EXISTS idx_products_status_category_price_id " +
+            "ON products (status, category, (COALESCE(price, 0)), id)",
+
+            // Seller lookups: own listings, and subtracting them from cached facet counts
+            "CREATE INDEX IF NOT EXISTS idx_products_seller_id_status ON products (seller_id, status)",
+
+            // Inbox: each participant's conversations by recent activity, the latest message per conversation,
+            // and unread counts from a small partial index
+            "CREATE INDEX IF NOT EXISTS idx_conversations_user1_activity " +
+            "ON conversations (user1_id, (COALESCE(last_message_at, created_at)) DESC, id DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_conversations_user2_activity " +
+            "ON conversations (user2_id, (COALESCE(last_message_at, created_at)) DESC, id DESC)",
+            // Also the keyset index for message history pages (before/after a message id) in both directions
+            "CREATE INDEX IF NOT EXISTS idx_messages_conversation_created_at_id " +
+            "ON messages (conversation_id, created_at DESC, id DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_messages_unread " +
+            "ON messages (conversation_id, receiver_id) WHERE is_read = FALSE",
+
+            // Notification feed: each source is read newest first in (created_at, id) order and merged
+            "CREATE INDEX IF NOT EXISTS idx_notifications_user_created_at_id " +
+            "ON notifications (user_id, created_at DESC, id DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_broadcast_notifications_created_at_id " +
+            "ON broadcast_notifications (created_at DESC, id DESC)",
+            // Badge counter (re)loads count a user's unread notifications from a small partial index
+            "CREATE INDEX IF NOT EXISTS idx_notifications_unread ON notifications (user_id) WHERE is_read = FALSE",
+
+            // Job queue: due pending jobs in claim order, and running jobs to release after a crash
+            "CREATE INDEX IF NOT EXISTS idx_jobs_pending_run_at ON jobs (run_at, id) WHERE status = 'PENDING'",
+            "CREATE INDEX IF NOT EXISTS idx_jobs_running_locked_at ON jobs (locked_at) WHERE status = 'RUNNING'",
+
+            // Full-text search over message content, in the same 'simple' configuration as product search
+            "ALTER TABLE messages ADD COLUMN IF NOT EXISTS search_vector tsvector " +
+            "GENERATED ALWAYS AS (to_tsvector('simple', coalesce(content, ''))) STORED",
+            "CREATE INDEX IF NOT EXISTS idx_messages_search_vector ON messages USING GIN (search_vector)",
+
+            // Delta sync: conversations changed since a cursor, and read receipts on the user's sent messages
+            "CREATE INDEX IF NOT EXISTS idx_conversations_user1_updated_at ON conversations (user1_id, updated_at)",
+            "CREATE INDEX IF NOT EXISTS idx_conversations_user2_updated_at ON conversations (user2_id, updated_at)",
+            "CREATE INDEX IF NOT EXISTS idx_messages_sender_read_at " +
+            "ON messages (sender_id, read_at) WHERE read_at IS NOT NULL",
+
+            // Feed ETag version shared by all instances, advanced after every write that changes feed pages
+            "CREATE SEQUENCE IF NOT EXISTS product_catalog_version_seq"
+    );
+
+    // One conversation per participant pair and product, whoever wrote first. The old
+    // (user1_id, user2_id, product_id) constraint neither ordered the pair nor matched NULL products,
+    // so duplicates are merged into the oldest conversation first: its snapshot and counters are
+    // cleared for ConversationSnapshotBackfill to recompute from the merged messages.
+    // Runs once, in one transaction, while CONVERSATION_UNIQUE_INDEX doesn't exist yet.
+    private static final String CONVERSATION_UNIQUE_INDEX = "uq_conversations_pair_product_live";
+
+    private static final List<String> CONVERSATION_UNIQUENESS_MIGRATION = List.of(
+            "UPDATE messages m SET conversation_id = d.keep_id FROM (" + DUPLICATE_CONVERSATIONS + ") d " +
+            "WHERE m.conversation_id = d.id AND d.id <> d.keep_id",
+            "UPDATE conversations c SET " +
+            "last_message_at = GREATEST(c.last_message_at, " +
+            "  (SELECT MAX(m.created_at) FROM messages m WHERE m.conversation_id = c.id)), " +
+            "last_message_id = NULL, last_message_preview = NULL, last_message_sender_id = NULL, " +
+            "last_message_read = NULL, user1_unread_count = NULL, user2_unread_count = NULL " +
+            "WHERE c.id IN (SELECT d.keep_id FROM (" + DUPLICATE_CONVERSATIONS + ") d WHERE d.id <> d.keep_id)",
+            "DELETE FROM conversations c USING (" + DUPLICATE_CONVERSATIONS + ") d " +
+            "WHERE c.id = d.id AND d.id <> d.keep_id",
+            // The old constraint was generated by Hibernate, so it is found by its columns, not its name
+            "DO $$ DECLARE r record; BEGIN " +
+            "FOR r IN SELECT con.conname FROM pg_constraint con " +
+            "  WHERE con.conrelid = 'conversations'::regclass AND con.contype = 'u' AND " +
+            "  (SELECT array_agg(a.attname::text ORDER BY a.attname) FROM pg_attribute a " +
+            "   WHERE a.attrelid = con.conrelid AND a.attnum = ANY (con.conkey)) = " +
+            "  ARRAY['product_id', 'user1_id', 'user2_id'] LOOP " +
+            "  EXECUTE format('ALTER TABLE conversations DROP CONSTRAINT %I', r.conname); " +
+            "END LOOP; END $$",
+            // Conflict target of ConversationRepository.upsertConversation. Partial, so a conversation
+            // waiting to be purged doesn't stop the pair from starting a new one.
+            "DROP INDEX IF EXISTS uq_conversations_pair_product",
+            "CREATE UNIQUE INDEX " + CONVERSATION_UNIQUE_INDEX + " " +
+            "ON conversations ((LEAST(user1_id, user2_id)), (GREATEST(user1_id, user2_id)), (COALESCE(product_id, 0))) " +
+            "WHERE deleted_at IS NULL"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrateConversationUniqueness();
+        for (String statement : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (Exception e) {
+                // Don't block startup - the affected feature degrades but the rest of the app keeps working
+                log.error("Failed to apply database statement [{}]: {}", statement, e.getMessage());
+            }
+        }
+        log.info("Database initializer applied {} statements", STATEMENTS.size());
+    }
+
+    // Unlike STATEMENTS, a failure here stops startup: find-or-create relies on the index as its conflict target
+    private void migrateConversationUniqueness() {
+        Boolean migrated = jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, CONVERSATION_UNIQUE_INDEX);
+        if (Boolean.TRUE.equals(migrated)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> CONVERSATION_UNIQUENESS_MIGRATION.forEach(jdbcTemplate::execute));
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Conversation uniqueness migration failed", e);
+        }
+        log.info("Merged duplicate conversations and created {}", CONVERSATION_UNIQUE_INDEX);
+    }
+}
@@ -0,0 +1,24 @@
+package com.campex.backend.controller;
+
+import com.campex.backend.dto.response.ApiResponse;
+import com.campex.backend.dto.response.BadgeResponse;
+import com.campex.backend.service.BadgeCounterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/badges")
+@RequiredArgsConstructor
+public class BadgeController {
+
+    private final BadgeCounterService badgeCounterService;
+
+    // Unread counts for the app badges, served from in-memory counters
+    @GetMapping
+    public ResponseEntity<ApiResponse<BadgeResponse>> getBadges() {
+        return ResponseEntity.ok(ApiResponse.success(badgeCounterService.getBadges(), null));
+    }
+}
@@ -7,6 +7,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/images")
 @RequiredArgsConstructor
@@ -15,20 +18,21 @@ public class ImageController {
     private final ImageModerationService moderationService;
 
     @PostMapping("/validate")
-    public ResponseEntity<ApiResponse<Void>> validateImage(@RequestParam("image") MultipartFile image) {
+    public CompletableFuture<ResponseEntity<ApiResponse<Void>>> validateImage(
+            @RequestParam("image") MultipartFile image) throws IOException {
         if (image == null || image.isEmpty()) {
-            return ResponseEntity.badRequest()
-                .body(ApiResponse.error("No image provided"));
-        }
-
-        // Validate image with AI - returns detailed error if unsafe
-        ImageModerationService.ValidationResult result = moderationService.validateImage(image);
-
-        if (!result.isSafe()) {
-            return ResponseEntity.badRequest()
-                .body(ApiResponse.error(result.getReason()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(ApiResponse.<Void>error("No image provided")));
         }
 
-        return ResponseEntity.ok(ApiResponse.success(null, "Image is safe to upload"));
+        // Validate image with AI - returns detailed error if unsafe. Runs on the moderation executor, so the
+        // request thread is released while Vision API answers.
+        return moderationService.validateImageAsync(image.getBytes()).thenApply(result -> {
+            if (!result.isSafe()) {
+                return ResponseEntity.badRequest()
+                    .body(ApiResponse.<Void>error(result.getReason()));
+            }
+            return ResponseEntity.ok(ApiResponse.<Void>success(null, "Image is safe to upload"));
+        });
     }
 }
\ No newline at end of file
@@ -3,14 +3,20 @@ package com.campex.backend.controller;
 import com.campex.backend.dto.request.SendMessageRequest;
 import com.campex.backend.dto.response.ApiResponse;
 import com.campex.backend.dto.response.ConversationResponse;
+import com.campex.backend.dto.response.CursorPageResponse;
 import com.campex.backend.dto.response.MessageResponse;
+import com.campex.backend.dto.response.MessageSearchHitResponse;
+import com.campex.backend.dto.response.StreamTicketResponse;
+import com.campex.backend.dto.response.SyncResponse;
 import com.campex.backend.service.MessageService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -32,6 +38,31 @@ public class MessageController {
         return ResponseEntity.ok(messageService.getConversations());
     }
 
+    // Live message events. EventSource can't send headers, so open it with ?ticket= from POST /stream-ticket
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return messageService.openStream();
+    }
+
+    @PostMapping("/stream-ticket")
+    public ResponseEntity<ApiResponse<StreamTicketResponse>> issueStreamTicket() {
+        return ResponseEntity.ok(ApiResponse.success(messageService.issueStreamTicket(), "Stream ticket issued"));
+    }
+
+    // Paginated inbox: pass an empty cursor for the first page, then the returned nextCursor
+    @GetMapping("/inbox")
+    public ResponseEntity<CursorPageResponse<ConversationResponse>> getInbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(messageService.getInbox(cursor, size));
+    }
+
+    // Delta sync on reconnect/refocus: pass the cursor from the previous sync (none on the first call)
+    @GetMapping("/sync")
+    public ResponseEntity<SyncResponse> sync(@RequestParam(required = false) String since) {
+        return ResponseEntity.ok(messageService.sync(since));
+    }
+
     @GetMapping("/conversations/{conversationId}")
     public ResponseEntity<Page<MessageResponse>> getMessages(
             @PathVariable Long conversationId,
@@ -41,6 +72,40 @@ public class MessageController {
         return ResponseEntity.ok(messageService.getMessages(conversationId, PageRequest.of(page, size)));
     }
 
+    // Cursor history: ?before=<messageId> scrolls back, ?after=<messageId> catches up, no total count
+    @GetMapping("/conversations/{conversationId}/messages")
+    public ResponseEntity<CursorPageResponse<MessageResponse>> getMessageHistory(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "30") int size) {
+
+        return ResponseEntity.ok(messageService.getMessageHistory(conversationId, before, after, size));
+    }
+
+    // Full-text search across the current user's conversations, best matches first
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageResponse<MessageSearchHitResponse>> searchMessages(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(messageService.searchMessages(q, cursor, size));
+    }
+
+    // Marks received messages read up to a message id (all when omitted) and resets the unread counter
+    @PostMapping("/conversations/{conversationId}/read")
+    public ResponseEntity<ApiResponse<Void>> markConversationRead(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) Long upTo) {
+        messageService.markConversationRead(conversationId, upTo);
+        return ResponseEntity.ok(ApiResponse.success(null, "Marked as read"));
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<ApiResponse<Long>> getUnreadCount() {
+        return ResponseEntity.ok(ApiResponse.success(messageService.getUnreadCount(), null));
+    }
+
     @PostMapping("/conversations/get-or-create")
     public ResponseEntity<ApiResponse<ConversationResponse>> getOrCreateConversation(
             @RequestParam Long sellerId,
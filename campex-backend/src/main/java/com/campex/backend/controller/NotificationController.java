@@ -1,13 +1,10 @@
 package com.campex.backend.controller;
 
 import com.campex.backend.dto.response.ApiResponse;
-import com.campex.backend.model.Notification;
-import com.campex.backend.repository.NotificationRepository;
-import com.campex.backend.repository.UserRepository;
-import com.campex.backend.security.SecurityUtils;
+import com.campex.backend.dto.response.CursorPageResponse;
+import com.campex.backend.dto.response.NotificationResponse;
 import com.campex.backend.service.NotificationService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
@@ -19,21 +16,20 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class NotificationController {
 
-    private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
     private final NotificationService notificationService;
 
+    // Personal notifications and broadcasts merged newest first (page/size)
     @GetMapping
-    public ResponseEntity<List<Notification>> getNotifications(Pageable pageable) {
-        String uid = SecurityUtils.getCurrentFirebaseUid();
-        if (uid == null) {
-            throw new IllegalArgumentException("User not authenticated");
-        }
-        Long userId = userRepository.findByFirebaseUid(uid)
-                .orElseThrow(() -> new IllegalArgumentException("User profile not created. Please create your profile first."))
-                .getId();
-        Page<Notification> page = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
-        return ResponseEntity.ok(page.getContent());
+    public ResponseEntity<List<NotificationResponse>> getNotifications(Pageable pageable) {
+        return ResponseEntity.ok(notificationService.getFeedPage(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    // Opt-in keyset pagination: pass an empty cursor for the first page, then the returned nextCursor
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<NotificationResponse>> getNotificationsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(notificationService.getFeed(cursor, size));
     }
 
     @PatchMapping("/{id}/read")
@@ -42,6 +38,18 @@ public class NotificationController {
         return ResponseEntity.ok(ApiResponse.success(null, "Marked as read"));
     }
 
+    @PatchMapping("/broadcasts/{id}/read")
+    public ResponseEntity<ApiResponse<Void>> markBroadcastAsRead(@PathVariable Long id) {
+        notificationService.markBroadcastAsRead(id);
+        return ResponseEntity.ok(ApiResponse.success(null, "Marked as read"));
+    }
+
+    @DeleteMapping("/broadcasts/{id}")
+    public ResponseEntity<ApiResponse<Void>> dismissBroadcast(@PathVariable Long id) {
+        notificationService.dismissBroadcast(id);
+        return ResponseEntity.ok(ApiResponse.success(null, "Notification dismissed"));
+    }
+
     @PostMapping("/mark-all-read")
     public ResponseEntity<ApiResponse<Void>> markAllAsRead() {
         notificationService.markAllAsRead();
@@ -3,15 +3,23 @@ package com.campex.backend.controller;
 import com.campex.backend.dto.request.CreateProductRequest;
 import com.campex.backend.dto.request.UpdateProductRequest;
 import com.campex.backend.dto.response.ApiResponse;
+import com.campex.backend.dto.response.CursorPageResponse;
+import com.campex.backend.dto.response.ProductFacetsResponse;
 import com.campex.backend.dto.response.ProductResponse;
+import com.campex.backend.dto.response.SuggestionResponse;
 import com.campex.backend.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
@@ -32,20 +40,77 @@ public class ProductController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String priceType,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
+
+        PageRequest pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        // 304 without running the feed query when nothing has changed since the client's copy
+        String etag = productService.getFeedETag(category, status, priceType, search, minPrice, maxPrice, sort, pageable);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         Page<ProductResponse> products = productService.getAllProducts(
-                category, status, priceType, search, 
-                PageRequest.of(page, size, Sort.by("createdAt").descending()));
-        
-        return ResponseEntity.ok(products);
+                category, status, priceType, search, minPrice, maxPrice, sort, pageable);
+
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(products);
+    }
+
+    // Opt-in keyset pagination: any request carrying a "cursor" parameter (empty for the first page)
+    // gets a slice with nextCursor and no total count. Old page/size clients are unaffected.
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<ProductResponse>> getProductsByCursor(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priceType,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(productService.getProductsByCursor(
+                category, status, priceType, search, minPrice, maxPrice, sort, cursor, size));
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<ProductFacetsResponse>> getFacets(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priceType,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
+
+        ProductFacetsResponse facets = productService.getFacets(category, status, priceType, search, minPrice, maxPrice);
+        return ResponseEntity.ok(ApiResponse.success(facets, null));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<SuggestionResponse>>> getSuggestions(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+
+        List<SuggestionResponse> suggestions = productService.getSuggestions(q, limit);
+        return ResponseEntity.ok(ApiResponse.success(suggestions, null));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = productService.getProductETag(id);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         ProductResponse product = productService.getProductById(id);
-        return ResponseEntity.ok(ApiResponse.success(product, null));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ApiResponse.success(product, null));
     }
 
     @PutMapping("/{id}")
@@ -46,7 +46,7 @@ public class TestEmailController {
         diagnostics.put("PasswordStatus", maskedPass);
 
         try {
-            emailService.sendSimpleMessageSync(mailUsername, "Test Email", "This is a test email from Campex Backend.");
+            emailService.send(mailUsername, "Test Email", "This is a test email from Campex Backend.");
             diagnostics.put("Result", "SUCCESS! Email sent to " + mailUsername);
             return ResponseEntity.ok(ApiResponse.success(diagnostics, "Email test successful"));
         } catch (Exception e) {
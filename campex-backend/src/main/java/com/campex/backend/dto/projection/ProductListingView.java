@@ -0,0 +1,59 @@
+package com.campex.backend.dto.projection;
+
+import com.campex.backend.dto.response.ProductResponse;
+import com.campex.backend.dto.response.UserResponse;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only row for product listings, filled by JPQL constructor expressions
+ * (see ProductRepository.LISTING_SELECT). Carries exactly the columns a feed card needs, including the
+ * seller's public fields, so listing queries skip entity hydration, dirty tracking and seller proxies.
+ * Constructor parameter order must match LISTING_SELECT.
+ */
+@Value
+public class ProductListingView {
+    Long id;
+    String title;
+    String description;
+    String category;
+    BigDecimal price;
+    boolean isFree;
+    boolean isNegotiable;
+    boolean isAvailableForRent;
+    String status;
+    List<String> images;
+    LocalDateTime createdAt;
+    Long sellerId;
+    String sellerFullName;
+    String sellerProfilePhotoUrl;
+    String sellerAcademicYear;
+
+    public ProductResponse toResponse(boolean isSaved) {
+        UserResponse sellerResponse = UserResponse.builder()
+                .id(sellerId)
+                .fullName(sellerFullName)
+                .profilePhotoUrl(sellerProfilePhotoUrl)
+                .academicYear(sellerAcademicYear)
+                .build();
+
+        return ProductResponse.builder()
+                .id(id)
+                .seller(sellerResponse)
+                .title(title)
+                .description(description)
+                .category(category)
+                .price(price)
+                .isFree(isFree)
+                .isNegotiable(isNegotiable)
+                .isAvailableForRent(isAvailableForRent)
+                .status(status)
+                .images(images)
+                .isSaved(isSaved)
+                .createdAt(createdAt)
+                .build();
+    }
+}
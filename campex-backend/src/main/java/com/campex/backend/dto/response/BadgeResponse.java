@@ -0,0 +1,11 @@
+package com.campex.backend.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BadgeResponse {
+    private long unreadNotifications; // personal notifications plus broadcasts
+    private long unreadMessages;
+}
@@ -15,4 +15,5 @@ public class ConversationResponse {
     private boolean isLastMessageRead;
     private Long lastMessageSenderId;
     private LocalDateTime lastMessageAt;
+    private long unreadCount; // messages to the current user not yet read
 }
\ No newline at end of file
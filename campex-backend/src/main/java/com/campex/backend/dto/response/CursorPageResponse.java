@@ -0,0 +1,18 @@
+package com.campex.backend.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated result. There is no total count - pass nextCursor back to get the next page.
+ */
+@Data
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private String nextCursor; // null when there are no more results
+    private boolean hasNext;
+    private int size;
+}
@@ -1,14 +1,19 @@
 package com.campex.backend.dto.response;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor // Read back from chat event payloads
 public class MessageResponse {
     private Long id;
+    private Long conversationId;
     private Long senderId;
     private Long receiverId;
     private String content;
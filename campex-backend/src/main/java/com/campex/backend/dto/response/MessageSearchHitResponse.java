@@ -0,0 +1,15 @@
+package com.campex.backend.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * A message matching a search, with enough of its conversation to show where it was said
+ */
+@Data
+@Builder
+public class MessageSearchHitResponse {
+    private MessageResponse message;
+    private UserResponse otherUser; // id, name and photo only
+    private ProductResponse product; // id and title only, null for general conversations
+}
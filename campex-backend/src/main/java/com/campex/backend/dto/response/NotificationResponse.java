@@ -1,5 +1,6 @@
 package com.campex.backend.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Data;
 
@@ -14,6 +15,10 @@ public class NotificationResponse {
     private String title;
     private String body;
     private Map<String, Object> data;
+    @JsonProperty("isRead")
     private boolean isRead;
+    // PERSONAL or BROADCAST. Ids are only unique within a kind: broadcasts are marked read / dismissed
+    // via /api/notifications/broadcasts/{id}
+    private String kind;
     private LocalDateTime createdAt;
 }
\ No newline at end of file
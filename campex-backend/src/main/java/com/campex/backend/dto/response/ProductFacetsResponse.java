@@ -0,0 +1,14 @@
+package com.campex.backend.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class ProductFacetsResponse {
+    private Map<String, Long> categories; // count per category with every filter except the category filter
+    private Map<String, Long> priceTypes; // FREE / NEGOTIABLE / FIXED with every filter except the price filter
+    private long total;                   // count with all filters applied
+}
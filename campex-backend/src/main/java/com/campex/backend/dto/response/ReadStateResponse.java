@@ -0,0 +1,14 @@
+package com.campex.backend.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * The other participant has read the current user's messages in a conversation up to and including this id
+ */
+@Data
+@Builder
+public class ReadStateResponse {
+    private Long conversationId;
+    private Long readUpToMessageId;
+}
@@ -0,0 +1,11 @@
+package com.campex.backend.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class StreamTicketResponse {
+    private String ticket; // pass as ?ticket= on GET /api/messages/stream; single use
+    private long expiresInMs;
+}
@@ -0,0 +1,12 @@
+package com.campex.backend.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SuggestionResponse {
+    private String text;
+    private String type;  // TERM (word from an active listing title) or CATEGORY
+    private long count;   // active listings containing it
+}
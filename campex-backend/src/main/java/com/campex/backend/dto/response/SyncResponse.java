@@ -0,0 +1,21 @@
+package com.campex.backend.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Chat changes since a sync cursor. Pass cursor back on the next sync. Consecutive syncs overlap by a few
+ * seconds, so clients merge by id. When fullResync is true the lists are empty and the client reloads the
+ * inbox and open chat through the regular endpoints, then continues from the returned cursor.
+ */
+@Data
+@Builder
+public class SyncResponse {
+    private List<ConversationResponse> conversations; // changed conversations, as inbox rows
+    private List<MessageResponse> messages; // new messages, oldest first
+    private List<ReadStateResponse> readStates;
+    private String cursor;
+    private boolean fullResync;
+}
@@ -0,0 +1,37 @@
+package com.campex.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification addressed to every user, stored once. Per-user read/dismissed state lives in
+ * BroadcastNotificationState (only for users who touched it) and in the per-user watermarks on User.
+ */
+@Entity
+@Table(name = "broadcast_notifications")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BroadcastNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The author, who doesn't receive their own broadcast. A plain id: broadcasts outlive deleted accounts.
+    @Column(name = "sender_id")
+    private Long senderId;
+
+    private String type; // ITEM_REQUEST, etc.
+
+    private String title;
+
+    private String body;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,36 @@
+package com.campex.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user's read/dismissed state for one broadcast, created the first time they act on it
+ */
+@Entity
+@Table(name = "broadcast_notification_states", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"broadcast_id", "user_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BroadcastNotificationState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "broadcast_id", nullable = false)
+    private BroadcastNotification broadcast;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    private LocalDateTime readAt;
+
+    private LocalDateTime dismissedAt;
+}
@@ -3,17 +3,20 @@ package com.campex.backend.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "conversations", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"user1_id", "user2_id", "product_id"})
-})
+// Unique per participant pair (either order) and product among live (not soft-deleted) rows, through the
+// uq_conversations_pair_product_live partial expression index created by DatabaseInitializer; user1 is the
+// lower user id on rows created since.
+@Table(name = "conversations")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate // Entity saves must not overwrite the unread counters, which are maintained by atomic UPDATEs
 public class Conversation {
 
     @Id
@@ -34,6 +37,31 @@ public class Conversation {
 
     private LocalDateTime lastMessageAt;
 
+    // Snapshot of the latest message, written with every send so the inbox needs no message lookups.
+    // Wrapper types: null until the first message (or until the startup backfill reaches older rows).
+    private Long lastMessageId;
+
+    @Column(length = 200)
+    private String lastMessagePreview;
+
+    private Long lastMessageSenderId;
+
+    private Boolean lastMessageRead;
+
+    // Unread messages addressed to user1 / user2, incremented on send and recounted on read.
+    // Start at 0 for new conversations and are then only written through ConversationRepository's
+    // atomic UPDATEs; null on older rows until the startup backfill counts them.
+    private Integer user1UnreadCount;
+
+    private Integer user2UnreadCount;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
+
+    // Last change a participant should sync (new message, read state), set by ConversationRepository's
+    // UPDATEs. Null on rows untouched since it was added.
+    private LocalDateTime updatedAt;
+
+    // Set when a large conversation is deleted: hidden at once, its messages purged later by ConversationPurger
+    private LocalDateTime deletedAt;
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.campex.backend.model;
+
+import io.hypersistence.utils.hibernate.type.json.JsonType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A side effect queued in the same transaction as the write that caused it, run by JobWorker.
+ * Rows are written and claimed with plain SQL (JobQueue, JobWorker); the entity defines the table.
+ */
+@Entity
+@Table(name = "jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Job {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String type; // JobHandler.type()
+
+    @Type(JsonType.class)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private Map<String, Object> payload;
+
+    @Column(nullable = false)
+    private String status; // PENDING, RUNNING or DEAD; finished jobs are deleted
+
+    private int attempts;
+
+    private int maxAttempts;
+
+    @Column(nullable = false)
+    private LocalDateTime runAt; // not claimed before this time (retry backoff)
+
+    private LocalDateTime lockedAt; // when a worker claimed it
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
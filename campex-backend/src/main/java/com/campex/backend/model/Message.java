@@ -35,6 +35,9 @@ public class Message {
 
     private boolean isRead = false;
 
+    // When the receiver read it (null while unread, and on messages read before the column existed)
+    private LocalDateTime readAt;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 }
\ No newline at end of file
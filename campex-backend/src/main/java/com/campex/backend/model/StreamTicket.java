@@ -0,0 +1,32 @@
+package com.campex.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single-use, short-lived credential for opening the message stream, which EventSource can't send headers to.
+ * Rows are written and redeemed with plain SQL (StreamTicketService); the entity defines the table.
+ */
+@Entity
+@Table(name = "stream_tickets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StreamTicket {
+
+    @Id
+    private String ticketHash; // SHA-256 of the ticket, so the table never holds a usable credential
+
+    @Column(nullable = false)
+    private String firebaseUid;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -38,6 +38,11 @@ public class User {
 
     private String fcmToken; // For push notifications
 
+    // Broadcast notifications with ids up to these count as read / deleted for this user ("mark all" actions)
+    private Long broadcastsReadUpTo;
+
+    private Long broadcastsClearedUpTo;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -1,7 +1,10 @@
 package com.campex.backend.repository;
 
 import com.campex.backend.model.BlockedUser;
+import com.campex.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +16,18 @@ public interface BlockedUserRepository extends JpaRepository<BlockedUser, Long>
     List<BlockedUser> findByBlockedId(Long blockedId);
     boolean existsByBlockerIdAndBlockedId(Long blockerId, Long blockedId);
     Optional<BlockedUser> findByBlockerIdAndBlockedId(Long blockerId, Long blockedId);
+
+    interface BlockEdge {
+        Long getBlockerId();
+        Long getBlockedId();
+    }
+
+    // Every block involving the user, in either direction (loads BlockGraphCache entries)
+    @Query("SELECT b.blocker.id AS blockerId, b.blocked.id AS blockedId FROM BlockedUser b " +
+           "WHERE b.blocker.id = :userId OR b.blocked.id = :userId")
+    List<BlockEdge> findEdgesOf(@Param("userId") Long userId);
+
+    // Users blocked by the blocker, loaded in the same query
+    @Query("SELECT u FROM BlockedUser b JOIN b.blocked u WHERE b.blocker.id = :blockerId ORDER BY b.blockedAt DESC")
+    List<User> findBlockedUsers(@Param("blockerId") Long blockerId);
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.campex.backend.repository;
+
+import com.campex.backend.model.BroadcastNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BroadcastNotificationRepository extends JpaRepository<BroadcastNotification, Long> {
+
+    interface BroadcastRow {
+        Long getId();
+        String getType();
+        String getTitle();
+        String getBody();
+        Boolean getRead();
+        LocalDateTime getCreatedAt();
+    }
+
+    // Broadcasts visible to the user, newest first: sent since they joined, not by them, not dismissed and not
+    // behind their "delete all" watermark. Read state comes from their state row or "mark all read" watermark.
+    // Pages continue after the merged feed position (createdAt, source, id), where broadcasts are source 1.
+    @Query(value = "SELECT b.id AS \"id\", b.type AS \"type\", b.title AS \"title\", b.body AS \"body\", " +
+                   "(s.read_at IS NOT NULL OR b.id <= COALESCE(u.broadcasts_read_up_to, 0)) AS \"read\", " +
+                   "b.created_at AS \"createdAt\" " +
+                   "FROM users u " +
+                   "JOIN broadcast_notifications b ON b.created_at >= u.created_at AND " +
+                   "  b.id > COALESCE(u.broadcasts_cleared_up_to, 0) " +
+                   "LEFT JOIN broadcast_notification_states s ON s.broadcast_id = b.id AND s.user_id = u.id " +
+                   "WHERE u.id = :userId AND (b.sender_id IS NULL OR b.sender_id <> u.id) AND " +
+                   "s.dismissed_at IS NULL AND " +
+                   "(CAST(:cursorCreatedAt AS TIMESTAMP) IS NULL OR " +
+                   "  (b.created_at, 1, b.id) < (CAST(:cursorCreatedAt AS TIMESTAMP), " +
+                   "  CAST(:cursorSource AS INTEGER), CAST(:cursorId AS BIGINT))) " +
+                   "ORDER BY b.created_at DESC, b.id DESC " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<BroadcastRow> findVisibleTo(
+            @Param("userId") Long userId,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorSource") Integer cursorSource,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit);
+
+    // Whether the user can see the broadcast (same rules as findVisibleTo, ignoring read/dismissed state)
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM users u JOIN broadcast_notifications b ON b.id = :broadcastId " +
+                   "WHERE u.id = :userId AND b.created_at >= u.created_at AND " +
+                   "(b.sender_id IS NULL OR b.sender_id <> u.id))",
+           nativeQuery = true)
+    boolean isVisibleTo(@Param("broadcastId") Long broadcastId, @Param("userId") Long userId);
+
+    // Unread visible broadcasts, for the badge counters: the same rules as findVisibleTo, only counting
+    // past the user's read watermark
+    @Query(value = "SELECT COUNT(*) FROM users u " +
+                   "JOIN broadcast_notifications b ON b.created_at >= u.created_at AND " +
+                   "  b.id > GREATEST(COALESCE(u.broadcasts_cleared_up_to, 0), COALESCE(u.broadcasts_read_up_to, 0)) " +
+                   "LEFT JOIN broadcast_notification_states s ON s.broadcast_id = b.id AND s.user_id = u.id " +
+                   "WHERE u.id = :userId AND (b.sender_id IS NULL OR b.sender_id <> u.id) AND " +
+                   "s.read_at IS NULL AND s.dismissed_at IS NULL",
+           nativeQuery = true)
+    long countUnreadVisibleTo(@Param("userId") Long userId);
+
+    @Query(value = "SELECT MAX(id) FROM broadcast_notifications", nativeQuery = true)
+    Long findMaxId();
+}
@@ -0,0 +1,35 @@
+package com.campex.backend.repository;
+
+import com.campex.backend.model.BroadcastNotificationState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface BroadcastNotificationStateRepository extends JpaRepository<BroadcastNotificationState, Long> {
+
+    // The state row is created on the user's first action on the broadcast, later actions update it
+    @Modifying
+    @Query(value = "INSERT INTO broadcast_notification_states (broadcast_id, user_id, read_at) " +
+                   "VALUES (:broadcastId, :userId, :now) " +
+                   "ON CONFLICT (broadcast_id, user_id) DO UPDATE " +
+                   "SET read_at = COALESCE(broadcast_notification_states.read_at, EXCLUDED.read_at)",
+           nativeQuery = true)
+    int markRead(@Param("broadcastId") Long broadcastId, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO broadcast_notification_states (broadcast_id, user_id, dismissed_at) " +
+                   "VALUES (:broadcastId, :userId, :now) " +
+                   "ON CONFLICT (broadcast_id, user_id) DO UPDATE " +
+                   "SET dismissed_at = COALESCE(broadcast_notification_states.dismissed_at, EXCLUDED.dismissed_at)",
+           nativeQuery = true)
+    int dismiss(@Param("broadcastId") Long broadcastId, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM BroadcastNotificationState s WHERE s.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+}
@@ -1,33 +1,191 @@
 package com.campex.backend.repository;
 
 import com.campex.backend.model.Conversation;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ConversationRepository extends JpaRepository<Conversation, Long> {
     
-    @Query("SELECT c FROM Conversation c WHERE c.user1.id = :userId OR c.user2.id = :userId ORDER BY c.lastMessageAt DESC")
-    List<Conversation> findByUser(@Param("userId") Long userId);
+    // Account deletion: every conversation of the user in one statement, soft-deleted ones included
+    @Modifying
+    @Query("DELETE FROM Conversation c WHERE c.user1.id = :userId OR c.user2.id = :userId")
+    int deleteAllByParticipantId(@Param("userId") Long userId);
+
+    // Find-or-create in one statement: inserts the conversation on the canonical pair (lower user id first)
+    // or, on conflict with uq_conversations_pair_product_live, returns the existing one. The no-op update makes
+    // RETURNING yield the existing id and waits on a concurrent insert of the same pair instead of failing.
+    // A product id that doesn't exist (anymore) falls back to the general conversation, as before.
+    // Empty when otherUserId doesn't exist. Runs inside the caller's (read-write) transaction.
+    @Query(value = "INSERT INTO conversations (user1_id, user2_id, product_id, last_message_at, created_at, " +
+                   "  updated_at, user1_unread_count, user2_unread_count) " +
+                   "SELECT LEAST(:userId, o.id), GREATEST(:userId, o.id), " +
+                   "  (SELECT p.id FROM products p WHERE p.id = CAST(:productId AS BIGINT)), :now, :now, :now, 0, 0 " +
+                   "FROM users o WHERE o.id = :otherUserId " +
+                   "ON CONFLICT ((LEAST(user1_id, user2_id)), (GREATEST(user1_id, user2_id)), (COALESCE(product_id, 0))) " +
+                   "  WHERE deleted_at IS NULL " +
+                   "DO UPDATE SET user1_id = conversations.user1_id " +
+                   "RETURNING id",
+           nativeQuery = true)
+    Optional<Long> upsertConversation(
+            @Param("userId") Long userId,
+            @Param("otherUserId") Long otherUserId,
+            @Param("productId") Long productId,
+            @Param("now") LocalDateTime now);
 
     @Query("SELECT c FROM Conversation c " +
-           "LEFT JOIN FETCH c.user1 " +
-           "LEFT JOIN FETCH c.user2 " +
+           "JOIN FETCH c.user1 " +
+           "JOIN FETCH c.user2 " +
            "LEFT JOIN FETCH c.product " +
-           "WHERE ((c.user1.id = :user1Id AND c.user2.id = :user2Id) OR " +
-           "(c.user1.id = :user2Id AND c.user2.id = :user1Id)) " +
-           "ORDER BY " +
-           "CASE WHEN :productId IS NOT NULL AND c.product.id = :productId THEN 0 " +
-           "WHEN :productId IS NULL AND c.product IS NULL THEN 0 " +
-           "ELSE 1 END, " +
-           "c.lastMessageAt DESC")
-    List<Conversation> findExistingConversations(
-            @Param("user1Id") Long user1Id, 
-            @Param("user2Id") Long user2Id,
-            @Param("productId") Long productId);
+           "WHERE c.id = :conversationId")
+    Optional<Conversation> findWithParticipantsById(@Param("conversationId") Long conversationId);
+
+    // Row lock that serializes mark-read against concurrent sends in the same conversation
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Conversation c WHERE c.id = :conversationId")
+    Optional<Conversation> findByIdForUpdate(@Param("conversationId") Long conversationId);
+
+    // Snapshot of the new message plus one more unread message for the receiver, in a single UPDATE.
+    // Counters still null (rows awaiting the backfill) are left alone; the backfill counts the message itself.
+    @Modifying
+    @Query(value = "UPDATE conversations SET " +
+                   "last_message_at = :sentAt, last_message_id = :messageId, last_message_preview = :preview, " +
+                   "last_message_sender_id = :senderId, last_message_read = FALSE, updated_at = :sentAt, " +
+                   "user1_unread_count = CASE WHEN user1_id = :receiverId " +
+                   "  THEN user1_unread_count + 1 ELSE user1_unread_count END, " +
+                   "user2_unread_count = CASE WHEN user2_id = :receiverId AND user1_id <> :receiverId " +
+                   "  THEN user2_unread_count + 1 ELSE user2_unread_count END " +
+                   "WHERE id = :conversationId",
+           nativeQuery = true)
+    int recordMessage(
+            @Param("conversationId") Long conversationId,
+            @Param("messageId") Long messageId,
+            @Param("preview") String preview,
+            @Param("senderId") Long senderId,
+            @Param("receiverId") Long receiverId,
+            @Param("sentAt") LocalDateTime sentAt);
+
+    // Recount the user's unread messages after a bulk mark-read (served by the partial unread index, which
+    // only holds the rows still unread), and refresh the read flag of the last message snapshot
+    @Modifying
+    @Query(value = "UPDATE conversations c SET " +
+                   "user1_unread_count = CASE WHEN c.user1_id = :userId THEN (SELECT COUNT(*) FROM messages m " +
+                   "  WHERE m.conversation_id = c.id AND m.receiver_id = :userId AND m.is_read = FALSE) " +
+                   "  ELSE c.user1_unread_count END, " +
+                   "user2_unread_count = CASE WHEN c.user2_id = :userId THEN (SELECT COUNT(*) FROM messages m " +
+                   "  WHERE m.conversation_id = c.id AND m.receiver_id = :userId AND m.is_read = FALSE) " +
+                   "  ELSE c.user2_unread_count END, " +
+                   "last_message_read = COALESCE((SELECT lm.is_read FROM messages lm WHERE lm.id = c.last_message_id), " +
+                   "  c.last_message_read), " +
+                   "updated_at = :updatedAt " +
+                   "WHERE c.id = :conversationId",
+           nativeQuery = true)
+    int recountUnread(
+            @Param("conversationId") Long conversationId,
+            @Param("userId") Long userId,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Badge total: sum of the user's per-conversation counters, no message rows touched
+    @Query(value = "SELECT COALESCE(SUM(CASE WHEN c.user1_id = :userId THEN COALESCE(c.user1_unread_count, 0) " +
+                   "  ELSE COALESCE(c.user2_unread_count, 0) END), 0) " +
+                   "FROM conversations c WHERE (c.user1_id = :userId OR c.user2_id = :userId) AND c.deleted_at IS NULL",
+           nativeQuery = true)
+    long sumUnread(@Param("userId") Long userId);
+
+    @Query("SELECT COUNT(c) > 0 FROM Conversation c WHERE c.id = :conversationId AND " +
+           "(c.user1.id = :userId OR c.user2.id = :userId) AND c.deletedAt IS NULL")
+    boolean isParticipant(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
+    // Hide a conversation right away; ConversationPurger removes it and its messages in the background
+    @Modifying
+    @Query("UPDATE Conversation c SET c.deletedAt = :deletedAt WHERE c.id = :conversationId")
+    int softDelete(@Param("conversationId") Long conversationId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Modifying
+    @Query("DELETE FROM Conversation c WHERE c.id = :conversationId")
+    int deleteByIdInBulk(@Param("conversationId") Long conversationId);
+
+    // One inbox row: the conversation with the other party, product summary, latest message and unread counter
+    interface InboxRow {
+        Long getId();
+        LocalDateTime getActivityAt();
+        Long getOtherUserId();
+        String getOtherUserEmail();
+        String getOtherUserFullName();
+        String getOtherUserProfilePhotoUrl();
+        String getOtherUserAcademicYear();
+        String getOtherUserPhoneNumber();
+        Boolean getOtherUserVerified();
+        LocalDateTime getOtherUserCreatedAt();
+        Long getProductId();
+        String getProductTitle();
+        String getProductCategory();
+        BigDecimal getProductPrice();
+        Boolean getProductFree();
+        Boolean getProductNegotiable();
+        String getProductStatus();
+        String getProductImages(); // jsonb as text
+        LocalDateTime getProductCreatedAt();
+        String getLastMessage(); // preview, at most MessageService.PREVIEW_LENGTH characters
+        Boolean getLastMessageRead();
+        Long getLastMessageSenderId();
+        long getUnreadCount();
+    }
+
+    String INBOX_SELECT = "SELECT c.id AS \"id\", COALESCE(c.last_message_at, c.created_at) AS \"activityAt\", " +
+            "o.id AS \"otherUserId\", o.email AS \"otherUserEmail\", o.full_name AS \"otherUserFullName\", " +
+            "o.profile_photo_url AS \"otherUserProfilePhotoUrl\", o.academic_year AS \"otherUserAcademicYear\", " +
+            "o.phone_number AS \"otherUserPhoneNumber\", o.is_verified AS \"otherUserVerified\", " +
+            "o.created_at AS \"otherUserCreatedAt\", " +
+            "p.id AS \"productId\", p.title AS \"productTitle\", p.category AS \"productCategory\", " +
+            "p.price AS \"productPrice\", p.is_free AS \"productFree\", p.is_negotiable AS \"productNegotiable\", " +
+            "p.status AS \"productStatus\", CAST(p.images AS TEXT) AS \"productImages\", " +
+            "p.created_at AS \"productCreatedAt\", " +
+            "c.last_message_preview AS \"lastMessage\", c.last_message_read AS \"lastMessageRead\", " +
+            "c.last_message_sender_id AS \"lastMessageSenderId\", " +
+            "CASE WHEN c.user1_id = :userId THEN COALESCE(c.user1_unread_count, 0) " +
+            "  ELSE COALESCE(c.user2_unread_count, 0) END AS \"unreadCount\" " +
+            "FROM conversations c " +
+            "JOIN users o ON o.id = CASE WHEN c.user1_id = :userId THEN c.user2_id ELSE c.user1_id END " +
+            "LEFT JOIN products p ON p.id = c.product_id " +
+            "WHERE (c.user1_id = :userId OR c.user2_id = :userId) AND c.deleted_at IS NULL AND " +
+            "NOT EXISTS (SELECT 1 FROM blocked_users b WHERE " +
+            "  (b.blocker_id = :userId AND b.blocked_id = o.id) OR (b.blocker_id = o.id AND b.blocked_id = :userId)) ";
+
+    // A page of the user's inbox in a single round trip, most recent activity first. The latest message
+    // comes from the snapshot columns on conversations (no message lookups), conversations with a blocked
+    // pair (either direction) are dropped in SQL, and the keyset cursor continues after (activityAt, id).
+    @Query(value = INBOX_SELECT + "AND " +
+                   "(CAST(:cursorActivityAt AS TIMESTAMP) IS NULL OR " +
+                   "  (COALESCE(c.last_message_at, c.created_at), c.id) < " +
+                   "  (CAST(:cursorActivityAt AS TIMESTAMP), CAST(:cursorId AS BIGINT))) " +
+                   "ORDER BY COALESCE(c.last_message_at, c.created_at) DESC, c.id DESC " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<InboxRow> findInbox(
+            @Param("userId") Long userId,
+            @Param("cursorActivityAt") LocalDateTime cursorActivityAt,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit);
+
+    // Inbox rows of the conversations changed (new message or read state) after `since`, for delta sync.
+    // Range scans on the (userX_id, updated_at) indexes.
+    @Query(value = INBOX_SELECT + "AND c.updated_at > :since " +
+                   "ORDER BY c.updated_at, c.id " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<InboxRow> findInboxChangedSince(
+            @Param("userId") Long userId,
+            @Param("since") LocalDateTime since,
+            @Param("limit") int limit);
 }
\ No newline at end of file
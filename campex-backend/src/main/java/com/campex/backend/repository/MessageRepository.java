@@ -4,10 +4,12 @@ import com.campex.backend.model.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,13 +17,126 @@ import java.util.Optional;
 public interface MessageRepository extends JpaRepository<Message, Long> {
     Page<Message> findByConversationIdOrderByCreatedAtDesc(Long conversationId, Pageable pageable);
     
-    // Get messages by sender/receiver for deletion
-    List<Message> findBySenderId(Long senderId);
-    List<Message> findByReceiverId(Long receiverId);
+    // Keyset history pages anchored on a message id, served by (conversation_id, created_at, id).
+    // Older messages newest first (scrolling back), or newer messages oldest first (catching up).
+    // No count query, and new messages never shift earlier pages.
+    @Query(value = "SELECT m.* FROM messages m WHERE m.conversation_id = :conversationId AND " +
+                   "(CAST(:beforeId AS BIGINT) IS NULL OR (m.created_at, m.id) < " +
+                   "  (SELECT b.created_at, b.id FROM messages b " +
+                   "   WHERE b.id = CAST(:beforeId AS BIGINT) AND b.conversation_id = :conversationId)) " +
+                   "ORDER BY m.created_at DESC, m.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Message> findHistoryBefore(
+            @Param("conversationId") Long conversationId,
+            @Param("beforeId") Long beforeId,
+            @Param("limit") int limit);
+
+    @Query(value = "SELECT m.* FROM messages m WHERE m.conversation_id = :conversationId AND " +
+                   "(m.created_at, m.id) > " +
+                   "  (SELECT a.created_at, a.id FROM messages a " +
+                   "   WHERE a.id = :afterId AND a.conversation_id = :conversationId) " +
+                   "ORDER BY m.created_at ASC, m.id ASC LIMIT :limit",
+           nativeQuery = true)
+    List<Message> findHistoryAfter(
+            @Param("conversationId") Long conversationId,
+            @Param("afterId") Long afterId,
+            @Param("limit") int limit);
+
+    // Account deletion: every message the user sent or received, in one statement
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.sender.id = :userId OR m.receiver.id = :userId")
+    int deleteAllByParticipantId(@Param("userId") Long userId);
     
     // Get latest message for a conversation
     Optional<Message> findFirstByConversationIdOrderByCreatedAtDesc(Long conversationId);
     
+    // Mark everything the user received in a conversation as read, up to and including a message id (all if null)
+    @Modifying
+    @Query(value = "UPDATE messages SET is_read = TRUE, read_at = :readAt WHERE conversation_id = :conversationId " +
+                   "AND receiver_id = :userId AND is_read = FALSE " +
+                   "AND (CAST(:upToMessageId AS BIGINT) IS NULL OR id <= CAST(:upToMessageId AS BIGINT))",
+           nativeQuery = true)
+    int markReadUpTo(
+            @Param("conversationId") Long conversationId,
+            @Param("userId") Long userId,
+            @Param("upToMessageId") Long upToMessageId,
+            @Param("readAt") LocalDateTime readAt);
+
+    // Delta sync: messages created after `since` in the user's live conversations that changed since then.
+    // Each send also bumps conversations.updated_at, so the changed conversations come from the
+    // (userX_id, updated_at) indexes and their messages from (conversation_id, created_at, id) range scans.
+    @Query(value = "SELECT m.* FROM messages m JOIN conversations c ON c.id = m.conversation_id " +
+                   "WHERE (c.user1_id = :userId OR c.user2_id = :userId) AND c.deleted_at IS NULL " +
+                   "AND c.updated_at > :since AND m.created_at > :since " +
+                   "ORDER BY m.created_at, m.id LIMIT :limit",
+           nativeQuery = true)
+    List<Message> findCreatedSince(
+            @Param("userId") Long userId,
+            @Param("since") LocalDateTime since,
+            @Param("limit") int limit);
+
+    // One message search hit with its conversation context
+    interface SearchHitRow {
+        Long getId();
+        Long getConversationId();
+        Long getSenderId();
+        Long getReceiverId();
+        String getContent();
+        Boolean getRead();
+        LocalDateTime getCreatedAt();
+        Float getRank();
+        Long getOtherUserId();
+        String getOtherUserFullName();
+        String getOtherUserProfilePhotoUrl();
+        Long getProductId();
+        String getProductTitle();
+    }
+
+    // Ranked full-text search over the messages of the user's live conversations, skipping blocked pairs
+    // like the inbox does. Matches come from the GIN index on messages.search_vector. Message content never
+    // changes, so a hit's rank is a stable position and pages continue after (rank, id).
+    @Query(value = "SELECT h.id AS \"id\", h.conversation_id AS \"conversationId\", h.sender_id AS \"senderId\", " +
+                   "h.receiver_id AS \"receiverId\", h.content AS \"content\", h.is_read AS \"read\", " +
+                   "h.created_at AS \"createdAt\", h.rank AS \"rank\", " +
+                   "o.id AS \"otherUserId\", o.full_name AS \"otherUserFullName\", " +
+                   "o.profile_photo_url AS \"otherUserProfilePhotoUrl\", " +
+                   "p.id AS \"productId\", p.title AS \"productTitle\" " +
+                   "FROM (SELECT m.id, m.conversation_id, m.sender_id, m.receiver_id, m.content, m.is_read, " +
+                   "    m.created_at, c.product_id, " +
+                   "    CASE WHEN c.user1_id = :userId THEN c.user2_id ELSE c.user1_id END AS other_user_id, " +
+                   "    ts_rank(m.search_vector, to_tsquery('simple', :tsQuery)) AS rank " +
+                   "  FROM messages m JOIN conversations c ON c.id = m.conversation_id " +
+                   "  WHERE m.search_vector @@ to_tsquery('simple', :tsQuery) AND " +
+                   "  (c.user1_id = :userId OR c.user2_id = :userId) AND c.deleted_at IS NULL) h " +
+                   "JOIN users o ON o.id = h.other_user_id " +
+                   "LEFT JOIN products p ON p.id = h.product_id " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM blocked_users b WHERE " +
+                   "  (b.blocker_id = :userId AND b.blocked_id = o.id) OR (b.blocker_id = o.id AND b.blocked_id = :userId)) AND " +
+                   "(CAST(:cursorRank AS REAL) IS NULL OR " +
+                   "  (h.rank, h.id) < (CAST(:cursorRank AS REAL), CAST(:cursorId AS BIGINT))) " +
+                   "ORDER BY h.rank DESC, h.id DESC " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<SearchHitRow> searchMessages(
+            @Param("userId") Long userId,
+            @Param("tsQuery") String tsQuery,
+            @Param("cursorRank") Float cursorRank,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit);
+
+    interface ReadStateRow {
+        Long getConversationId();
+        Long getReadUpToMessageId();
+    }
+
+    // Delta sync: per conversation, the newest of the user's sent messages that the receiver read after
+    // `since`. Bulk mark-read reads everything up to a message, so the max id covers the rest.
+    @Query(value = "SELECT m.conversation_id AS \"conversationId\", MAX(m.id) AS \"readUpToMessageId\" " +
+                   "FROM messages m WHERE m.sender_id = :userId AND m.read_at > :since " +
+                   "GROUP BY m.conversation_id",
+           nativeQuery = true)
+    List<ReadStateRow> findReadStateSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
     // Count unread messages for a user in a specific conversation
     @Query("SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :conversationId AND m.receiver.id = :userId AND m.isRead = false")
     long countUnreadMessages(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
@@ -29,6 +144,15 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     // Count unread messages for a user
     long countByReceiverIdAndIsReadFalse(Long receiverId);
     
-    // Delete all messages in a conversation
-    void deleteByConversationId(Long conversationId);
+    // Delete all messages in a conversation with one statement (the derived deleteBy loaded and removed
+    // every message entity one at a time)
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.conversation.id = :conversationId")
+    int deleteAllByConversationId(@Param("conversationId") Long conversationId);
+
+    // Whether the conversation has more than `threshold` messages, reading at most threshold + 1 index entries
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM messages m WHERE m.conversation_id = :conversationId " +
+                   "OFFSET :threshold)",
+           nativeQuery = true)
+    boolean hasMoreMessagesThan(@Param("conversationId") Long conversationId, @Param("threshold") int threshold);
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,9 +19,26 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserId(Long userId);
     long countByUserIdAndIsReadFalse(Long userId);
     void deleteByUserId(Long userId);
+
+    // The user's own notifications, newest first. Pages continue after the merged feed position
+    // (createdAt, source, id), where personal notifications are source 0.
+    @Query(value = "SELECT n.* FROM notifications n WHERE n.user_id = :userId AND " +
+                   "(CAST(:cursorCreatedAt AS TIMESTAMP) IS NULL OR " +
+                   "  (n.created_at, 0, n.id) < (CAST(:cursorCreatedAt AS TIMESTAMP), " +
+                   "  CAST(:cursorSource AS INTEGER), CAST(:cursorId AS BIGINT))) " +
+                   "ORDER BY n.created_at DESC, n.id DESC " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Notification> findPersonal(
+            @Param("userId") Long userId,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorSource") Integer cursorSource,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit);
     
+    // Returns 0 when the notification was already read
     @Modifying
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :notificationId")
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :notificationId AND n.isRead = false")
     int markAsReadById(@Param("notificationId") Long notificationId);
     
     @Modifying
@@ -1,36 +1,224 @@
 package com.campex.backend.repository;
 
+import com.campex.backend.dto.projection.ProductListingView;
 import com.campex.backend.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     // Find by seller
     Page<Product> findBySellerId(Long sellerId, Pageable pageable);
+    @EntityGraph(attributePaths = "seller")
     Page<Product> findBySellerIdAndStatus(Long sellerId, String status, Pageable pageable);
 
-    // Search query with filters (excludes current user's own items)
-    // Search query with filters (excludes current user's own items)
-    @Query("SELECT p FROM Product p WHERE " +
-           "(:categories IS NULL OR p.category IN :categories) AND " +
-           "(:status IS NULL OR p.status = :status) AND " +
-           "(:filterByPrice = FALSE OR (" +
-           "  (:includeFree = TRUE AND p.isFree = TRUE) OR " +
-           "  (:includeNegotiable = TRUE AND p.isFree = FALSE AND p.isNegotiable = TRUE) OR " +
-           "  (:includeFixed = TRUE AND p.isFree = FALSE AND p.isNegotiable = FALSE)" +
-           ")) AND " +
-           "(:excludeSellerId IS NULL OR p.seller.id != :excludeSellerId) AND " +
-           "(LOWER(p.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')))") 
-    Page<Product> searchProducts(
+    // Filter columns of listings in a status, used to build the in-memory feed index
+    interface IndexSourceRow {
+        Long getId();
+        Long getSellerId();
+        String getCategory();
+        boolean getIsFree();
+        boolean getIsNegotiable();
+    }
+
+    @Query("SELECT p.id AS id, p.seller.id AS sellerId, p.category AS category, p.isFree AS isFree, " +
+           "p.isNegotiable AS isNegotiable FROM Product p WHERE p.status = :status")
+    List<IndexSourceRow> findIndexSources(@Param("status") String status);
+
+    // Titles and categories of listings in a status, used to build the typeahead index
+    interface SuggestionSourceRow {
+        Long getId();
+        String getTitle();
+        String getCategory();
+    }
+
+    @Query("SELECT p.id AS id, p.title AS title, p.category AS category FROM Product p WHERE p.status = :status")
+    List<SuggestionSourceRow> findSuggestionSources(@Param("status") String status);
+
+    // Everything a product detail response depends on, for its ETag: no images/description, one row
+    interface ProductVersionRow {
+        Long getId();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        LocalDateTime getSellerUpdatedAt();
+        long getSavedCount();
+    }
+
+    @Query("SELECT p.id AS id, p.createdAt AS createdAt, p.updatedAt AS updatedAt, " +
+           "s.updatedAt AS sellerUpdatedAt, " +
+           "(SELECT COUNT(si) FROM SavedItem si WHERE si.product = p AND si.user.firebaseUid = :uid) AS savedCount " +
+           "FROM Product p JOIN p.seller s WHERE p.id = :id")
+    Optional<ProductVersionRow> findVersionById(@Param("id") Long id, @Param("uid") String uid);
+
+    // Single product with its seller fetched in the same query
+    @EntityGraph(attributePaths = "seller")
+    Optional<Product> findWithSellerById(Long id);
+
+    // Listing columns selected straight into ProductListingView (read-only, no entity hydration)
+    String LISTING_SELECT =
+            "SELECT new com.campex.backend.dto.projection.ProductListingView(" +
+            "p.id, p.title, p.description, p.category, p.price, p.isFree, p.isNegotiable, " +
+            "p.isAvailableForRent, p.status, p.images, p.createdAt, " +
+            "s.id, s.fullName, s.profilePhotoUrl, s.academicYear) " +
+            "FROM Product p JOIN p.seller s ";
+
+    String LISTING_FILTERS =
+            "(:categories IS NULL OR p.category IN :categories) AND " +
+            "(:status IS NULL OR p.status = :status) AND " +
+            "(:filterByPrice = FALSE OR (" +
+            "  (:includeFree = TRUE AND p.isFree = TRUE) OR " +
+            "  (:includeNegotiable = TRUE AND p.isFree = FALSE AND p.isNegotiable = TRUE) OR " +
+            "  (:includeFixed = TRUE AND p.isFree = FALSE AND p.isNegotiable = FALSE)" +
+            ")) AND " +
+            "(:excludeSellerId IS NULL OR s.id != :excludeSellerId) AND " +
+            "(:minPrice IS NULL OR COALESCE(p.price, 0) >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR COALESCE(p.price, 0) <= :maxPrice)";
+
+    // Feed query with filters and no search term (excludes current user's own items).
+    // Sorted by the Pageable: createdAt, or COALESCE(p.price, 0) + id for the price sorts.
+    @Query(value = LISTING_SELECT + "WHERE " + LISTING_FILTERS,
+           countQuery = "SELECT COUNT(p) FROM Product p JOIN p.seller s WHERE " + LISTING_FILTERS)
+    Page<ProductListingView> filterProductListings(
+            @Param("categories") List<String> categories,
+            @Param("status") String status,
+            @Param("filterByPrice") boolean filterByPrice,
+            @Param("includeFree") boolean includeFree,
+            @Param("includeNegotiable") boolean includeNegotiable,
+            @Param("includeFixed") boolean includeFixed,
+            @Param("excludeSellerId") Long excludeSellerId,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            Pageable pageable);
+
+    // Keyset variant of filterProductListings: newest first, continuing strictly after (cursorCreatedAt, cursorId).
+    // Served by the (status, created_at, id) indexes without OFFSET scans or a COUNT query.
+    @Query(LISTING_SELECT + "WHERE " + LISTING_FILTERS + " AND " +
+           "(:cursorCreatedAt IS NULL OR p.createdAt < :cursorCreatedAt OR " +
+           "  (p.createdAt = :cursorCreatedAt AND p.id < :cursorId)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<ProductListingView> filterProductListingsAfter(
+            @Param("categories") List<String> categories,
+            @Param("status") String status,
+            @Param("filterByPrice") boolean filterByPrice,
+            @Param("includeFree") boolean includeFree,
+            @Param("includeNegotiable") boolean includeNegotiable,
+            @Param("includeFixed") boolean includeFixed,
+            @Param("excludeSellerId") Long excludeSellerId,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    // Listings for ids found by the native search queries and the first-page cache (in no particular order)
+    @Query(LISTING_SELECT + "WHERE p.id IN :ids")
+    List<ProductListingView> findListingsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Full-text search over the GIN indexed search_vector (title, category, description) with prefix
+    // matching, plus a trigram word-similarity fallback on the title so small typos still match.
+    // Results are ranked by relevance, newest first on ties, unless sort is price_asc/price_desc: then they
+    // are in the (COALESCE(price, 0), id) order of the price sorts. Only ids are selected, the listing columns
+    // are loaded with findListingsByIdIn. Pageable must be unsorted.
+    String FULL_TEXT_SEARCH_FILTERS =
+            "(:filterByCategory = FALSE OR p.category IN (:categories)) AND " +
+            "p.status = :status AND " +
+            "(:filterByPrice = FALSE OR (" +
+            "  (:includeFree = TRUE AND p.is_free = TRUE) OR " +
+            "  (:includeNegotiable = TRUE AND p.is_free = FALSE AND p.is_negotiable = TRUE) OR " +
+            "  (:includeFixed = TRUE AND p.is_free = FALSE AND p.is_negotiable = FALSE)" +
+            ")) AND " +
+            "(CAST(:excludeSellerId AS BIGINT) IS NULL OR p.seller_id <> CAST(:excludeSellerId AS BIGINT)) AND " +
+            "(CAST(:minPrice AS NUMERIC) IS NULL OR COALESCE(p.price, 0) >= CAST(:minPrice AS NUMERIC)) AND " +
+            "(CAST(:maxPrice AS NUMERIC) IS NULL OR COALESCE(p.price, 0) <= CAST(:maxPrice AS NUMERIC)) AND " +
+            "(p.search_vector @@ to_tsquery('simple', :tsQuery) OR lower(:search) <% lower(p.title))";
+
+    @Query(value = "SELECT p.id FROM products p WHERE " + FULL_TEXT_SEARCH_FILTERS + " " +
+                   "ORDER BY " +
+                   "CASE WHEN :sort = 'price_asc' THEN COALESCE(p.price, 0) END ASC, " +
+                   "CASE WHEN :sort = 'price_desc' THEN COALESCE(p.price, 0) END DESC, " +
+                   "CASE WHEN :sort = 'price_asc' THEN p.id END ASC, " +
+                   "CASE WHEN :sort = 'price_desc' THEN p.id END DESC, " +
+                   "ts_rank(p.search_vector, to_tsquery('simple', :tsQuery)) + " +
+                   "word_similarity(lower(:search), lower(p.title)) DESC, p.created_at DESC, p.id DESC",
+           countQuery = "SELECT COUNT(*) FROM products p WHERE " + FULL_TEXT_SEARCH_FILTERS,
+           nativeQuery = true)
+    Page<Long> searchProductIdsFullText(
+            @Param("filterByCategory") boolean filterByCategory,
+            @Param("categories") List<String> categories,
+            @Param("status") String status,
+            @Param("filterByPrice") boolean filterByPrice,
+            @Param("includeFree") boolean includeFree,
+            @Param("includeNegotiable") boolean includeNegotiable,
+            @Param("includeFixed") boolean includeFixed,
+            @Param("excludeSellerId") Long excludeSellerId,
+            @Param("tsQuery") String tsQuery,
+            @Param("search") String search,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("sort") String sort,
+            Pageable pageable);
+
+    // Keyset variant of searchProductIdsFullText. Cursor pages can't be ranked by relevance (the rank isn't
+    // a stable position), so matches are returned newest first instead.
+    @Query(value = "SELECT p.id FROM products p WHERE " + FULL_TEXT_SEARCH_FILTERS + " AND " +
+                   "(CAST(:cursorCreatedAt AS TIMESTAMP) IS NULL OR " +
+                   "  (p.created_at, p.id) < (CAST(:cursorCreatedAt AS TIMESTAMP), CAST(:cursorId AS BIGINT))) " +
+                   "ORDER BY p.created_at DESC, p.id DESC",
+           nativeQuery = true)
+    Slice<Long> searchProductIdsFullTextAfter(
+            @Param("filterByCategory") boolean filterByCategory,
+            @Param("categories") List<String> categories,
+            @Param("status") String status,
+            @Param("filterByPrice") boolean filterByPrice,
+            @Param("includeFree") boolean includeFree,
+            @Param("includeNegotiable") boolean includeNegotiable,
+            @Param("includeFixed") boolean includeFixed,
+            @Param("excludeSellerId") Long excludeSellerId,
+            @Param("tsQuery") String tsQuery,
+            @Param("search") String search,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    // Keyset pagination of the price sorts, with or without a search term. Ordered by (COALESCE(price, 0), id)
+    // to match the expression indexes on (status[, category], COALESCE(price, 0), id), so deep pages are an
+    // index range scan starting at the cursor instead of a sort of the whole filtered set.
+    String PRICE_KEYSET_FILTERS =
+            "(:filterByCategory = FALSE OR p.category IN (:categories)) AND " +
+            "p.status = :status AND " +
+            "(:filterByPrice = FALSE OR (" +
+            "  (:includeFree = TRUE AND p.is_free = TRUE) OR " +
+            "  (:includeNegotiable = TRUE AND p.is_free = FALSE AND p.is_negotiable = TRUE) OR " +
+            "  (:includeFixed = TRUE AND p.is_free = FALSE AND p.is_negotiable = FALSE)" +
+            ")) AND " +
+            "(CAST(:excludeSellerId AS BIGINT) IS NULL OR p.seller_id <> CAST(:excludeSellerId AS BIGINT)) AND " +
+            "(CAST(:minPrice AS NUMERIC) IS NULL OR COALESCE(p.price, 0) >= CAST(:minPrice AS NUMERIC)) AND " +
+            "(CAST(:maxPrice AS NUMERIC) IS NULL OR COALESCE(p.price, 0) <= CAST(:maxPrice AS NUMERIC)) AND " +
+            "(:hasSearch = FALSE OR p.search_vector @@ to_tsquery('simple', :tsQuery) " +
+            "  OR lower(:search) <% lower(p.title))";
+
+    @Query(value = "SELECT p.id FROM products p WHERE " + PRICE_KEYSET_FILTERS + " AND " +
+                   "(CAST(:cursorPrice AS NUMERIC) IS NULL OR " +
+                   "  (COALESCE(p.price, 0), p.id) > (CAST(:cursorPrice AS NUMERIC), CAST(:cursorId AS BIGINT))) " +
+                   "ORDER BY COALESCE(p.price, 0) ASC, p.id ASC",
+           nativeQuery = true)
+    Slice<Long> findIdsByPriceAscAfter(
+            @Param("filterByCategory") boolean filterByCategory,
             @Param("categories") List<String> categories,
             @Param("status") String status,
             @Param("filterByPrice") boolean filterByPrice,
@@ -38,6 +226,131 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             @Param("includeNegotiable") boolean includeNegotiable,
             @Param("includeFixed") boolean includeFixed,
             @Param("excludeSellerId") Long excludeSellerId,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("hasSearch") boolean hasSearch,
+            @Param("tsQuery") String tsQuery,
             @Param("search") String search,
+            @Param("cursorPrice") BigDecimal cursorPrice,
+            @Param("cursorId") Long cursorId,
             Pageable pageable);
-}
\ No newline at end of file
+
+    @Query(value = "SELECT p.id FROM products p WHERE " + PRICE_KEYSET_FILTERS + " AND " +
+                   "(CAST(:cursorPrice AS NUMERIC) IS NULL OR " +
+                   "  (COALESCE(p.price, 0), p.id) < (CAST(:cursorPrice AS NUMERIC), CAST(:cursorId AS BIGINT))) " +
+                   "ORDER BY COALESCE(p.price, 0) DESC, p.id DESC",
+           nativeQuery = true)
+    Slice<Long> findIdsByPriceDescAfter(
+            @Param("filterByCategory") boolean filterByCategory,
+            @Param("categories") List<String> categories,
+            @Param("status") String status,
+            @Param("filterByPrice") boolean filterByPrice,
+            @Param("includeFree") boolean includeFree,
+            @Param("includeNegotiable") boolean includeNegotiable,
+            @Param("includeFixed") boolean includeFixed,
+            @Param("excludeSellerId") Long excludeSellerId,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("hasSearch") boolean hasSearch,
+            @Param("tsQuery") String tsQuery,
+            @Param("search") String search,
+            @Param("cursorPrice") BigDecimal cursorPrice,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    // Per-category counts split into the FREE / NEGOTIABLE / FIXED price buckets in one aggregate pass.
+    // Category and price filters are applied in memory so each facet can ignore its own selection.
+    interface FacetRow {
+        String getCategory();
+        long getFreeCount();
+        long getNegotiableCount();
+        long getFixedCount();
+    }
+
+    String FACET_SELECT =
+            "SELECT p.category AS \"category\", " +
+            "COUNT(*) FILTER (WHERE p.is_free) AS \"freeCount\", " +
+            "COUNT(*) FILTER (WHERE NOT p.is_free AND p.is_negotiable) AS \"negotiableCount\", " +
+            "COUNT(*) FILTER (WHERE NOT p.is_free AND NOT p.is_negotiable) AS \"fixedCount\" " +
+            "FROM products p ";
+
+    @Query(value = FACET_SELECT + "WHERE p.status = :status AND " +
+                   "(CAST(:excludeSellerId AS BIGINT) IS NULL OR p.seller_id <> CAST(:excludeSellerId AS BIGINT)) AND " +
+                   "(CAST(:minPrice AS NUMERIC) IS NULL OR COALESCE(p.price, 0) >= CAST(:minPrice AS NUMERIC)) AND " +
+                   "(CAST(:maxPrice AS NUMERIC) IS NULL OR COALESCE(p.price, 0) <= CAST(:maxPrice AS NUMERIC)) AND " +
+                   "(:hasSearch = FALSE OR p.search_vector @@ to_tsquery('simple', :tsQuery) " +
+                   "  OR lower(:search) <% lower(p.title)) " +
+                   "GROUP BY p.category",
+           nativeQuery = true)
+    List<FacetRow> countFacets(
+            @Param("status") String status,
+            @Param("excludeSellerId") Long excludeSellerId,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("hasSearch") boolean hasSearch,
+            @Param("tsQuery") String tsQuery,
+            @Param("search") String search);
+
+    @Query(value = FACET_SELECT + "WHERE p.seller_id = :sellerId AND p.status = :status GROUP BY p.category",
+           nativeQuery = true)
+    List<FacetRow> countFacetsForSeller(@Param("sellerId") Long sellerId, @Param("status") String status);
+
+    // Shared (not per-viewer) feed results for the first-page cache. Same filters as the feed with the
+    // own-listing exclusion left out, ordered like the feed: relevance when searching, otherwise newest.
+    interface FeedIdRow {
+        Long getId();
+        Long getSellerId();
+    }
+
+    interface SellerCountRow {
+        Long getSellerId();
+        long getCount();
+    }
+
+    String SHARED_FEED_FILTERS =
+            "(:filterByCategory = FALSE OR p.category IN (:categories)) AND " +
+            "p.status = :status AND " +
+            "(:filterByPrice = FALSE OR (" +
+            "  (:includeFree = TRUE AND p.is_free = TRUE) OR " +
+            "  (:includeNegotiable = TRUE AND p.is_free = FALSE AND p.is_negotiable = TRUE) OR " +
+            "  (:includeFixed = TRUE AND p.is_free = FALSE AND p.is_negotiable = FALSE)" +
+            ")) AND " +
+            "(:hasSearch = FALSE OR p.search_vector @@ to_tsquery('simple', :tsQuery) " +
+            "  OR lower(:search) <% lower(p.title))";
+
+    @Query(value = "SELECT p.id AS \"id\", p.seller_id AS \"sellerId\" FROM products p " +
+                   "WHERE " + SHARED_FEED_FILTERS + " " +
+                   "ORDER BY CASE WHEN :hasSearch THEN ts_rank(p.search_vector, to_tsquery('simple', :tsQuery)) + " +
+                   "  word_similarity(lower(:search), lower(p.title)) ELSE 0 END DESC, " +
+                   "p.created_at DESC, p.id DESC " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<FeedIdRow> findSharedFeedIds(
+            @Param("filterByCategory") boolean filterByCategory,
+            @Param("categories") List<String> categories,
+            @Param("status") String status,
+            @Param("filterByPrice") boolean filterByPrice,
+            @Param("includeFree") boolean includeFree,
+            @Param("includeNegotiable") boolean includeNegotiable,
+            @Param("includeFixed") boolean includeFixed,
+            @Param("hasSearch") boolean hasSearch,
+            @Param("tsQuery") String tsQuery,
+            @Param("search") String search,
+            @Param("limit") int limit);
+
+    // Match counts per seller: the total for any viewer is the sum minus the viewer's own count
+    @Query(value = "SELECT p.seller_id AS \"sellerId\", COUNT(*) AS \"count\" FROM products p " +
+                   "WHERE " + SHARED_FEED_FILTERS + " GROUP BY p.seller_id",
+           nativeQuery = true)
+    List<SellerCountRow> countSharedFeedBySeller(
+            @Param("filterByCategory") boolean filterByCategory,
+            @Param("categories") List<String> categories,
+            @Param("status") String status,
+            @Param("filterByPrice") boolean filterByPrice,
+            @Param("includeFree") boolean includeFree,
+            @Param("includeNegotiable") boolean includeNegotiable,
+            @Param("includeFixed") boolean includeFixed,
+            @Param("hasSearch") boolean hasSearch,
+            @Param("tsQuery") String tsQuery,
+            @Param("search") String search);
+}
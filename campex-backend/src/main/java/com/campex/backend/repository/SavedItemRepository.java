@@ -4,13 +4,27 @@ import com.campex.backend.model.SavedItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface SavedItemRepository extends JpaRepository<SavedItem, Long> {
     Page<SavedItem> findByUserIdOrderBySavedAtDesc(Long userId, Pageable pageable);
     Optional<SavedItem> findByUserIdAndProductId(Long userId, Long productId);
     boolean existsByUserIdAndProductId(Long userId, Long productId);
+
+    // Resolve isSaved for a whole page of products in one query
+    @Query("SELECT s.product.id FROM SavedItem s WHERE s.user.id = :userId AND s.product.id IN :productIds")
+    Set<Long> findSavedProductIds(@Param("userId") Long userId, @Param("productIds") Collection<Long> productIds);
+
+    // Saved items with their product and seller in a single query
+    @Query("SELECT s FROM SavedItem s JOIN FETCH s.product p JOIN FETCH p.seller " +
+           "WHERE s.user.id = :userId ORDER BY s.savedAt DESC")
+    List<SavedItem> findWithProductByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
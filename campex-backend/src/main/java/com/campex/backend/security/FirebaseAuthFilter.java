@@ -19,14 +19,28 @@ import java.util.ArrayList;
 @Component
 public class FirebaseAuthFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/api/messages/stream";
+
+    private final StreamTicketService streamTicketService;
+
+    public FirebaseAuthFilter(StreamTicketService streamTicketService) {
+        this.streamTicketService = streamTicketService;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         String header = request.getHeader("Authorization");
-
+        String token = null;
         if (header != null && header.startsWith("Bearer ")) {
-            String token = header.substring(7);
+            token = header.substring(7);
+        } else if (STREAM_PATH.equals(request.getRequestURI()) && request.getParameter("ticket") != null) {
+            // Browser EventSource can't set headers; the stream takes a single-use ticket instead of the ID token
+            authenticateStreamTicket(request, request.getParameter("ticket"));
+        }
+
+        if (token != null && !token.isEmpty()) {
             try {
                 FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(token);
                 String uid = decodedToken.getUid();
@@ -53,4 +67,17 @@ public class FirebaseAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private void authenticateStreamTicket(HttpServletRequest request, String ticket) {
+        String uid = streamTicketService.redeem(ticket);
+        if (uid == null) {
+            return;
+        }
+        User principal = new User(uid, "", new ArrayList<>());
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                principal, null, new ArrayList<>());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        request.setAttribute("uid", uid);
+    }
 }
\ No newline at end of file
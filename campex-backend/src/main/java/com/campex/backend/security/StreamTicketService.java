@@ -0,0 +1,60 @@
+package com.campex.backend.security;
+
+import com.campex.backend.util.HashUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Issues and redeems stream tickets. A ticket is requested with the normal Bearer token and then passed as
+ * the ?ticket= parameter of the stream URL, so the Firebase ID token never appears in a URL or access log.
+ * Tickets live in the database, so any instance can redeem them, and redeeming deletes the row.
+ */
+@Component
+public class StreamTicketService {
+
+    private static final int TICKET_BYTES = 32;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMs;
+    private final SecureRandom random = new SecureRandom();
+
+    public StreamTicketService(JdbcTemplate jdbcTemplate,
+                               @Value("${app.chat.stream.ticket-ttl-ms:30000}") long ttlMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMs = ttlMs;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public String issue(String firebaseUid) {
+        byte[] bytes = new byte[TICKET_BYTES];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        // Expired tickets are never redeemed; clear them here rather than on a schedule
+        jdbcTemplate.update("DELETE FROM stream_tickets WHERE expires_at <= ?", now);
+        jdbcTemplate.update(
+                "INSERT INTO stream_tickets (ticket_hash, firebase_uid, expires_at, created_at) VALUES (?, ?, ?, ?)",
+                HashUtils.sha256Hex(ticket), firebaseUid, now.plusNanos(ttlMs * 1_000_000), now);
+        return ticket;
+    }
+
+    /**
+     * The Firebase UID the ticket was issued to, or null if it is unknown, expired or already used
+     */
+    public String redeem(String ticket) {
+        List<String> uids = jdbcTemplate.queryForList(
+                "DELETE FROM stream_tickets WHERE ticket_hash = ? AND expires_at > ? RETURNING firebase_uid",
+                String.class, HashUtils.sha256Hex(ticket), LocalDateTime.now());
+        return uids.isEmpty() ? null : uids.get(0);
+    }
+}
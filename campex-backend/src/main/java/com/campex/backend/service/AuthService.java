@@ -59,10 +59,12 @@ public class AuthService {
         sendVerificationCode(user.getEmail());
     }
 
+    @Transactional
     public void sendVerificationCode(String email) {
         sendVerificationCode(email, null);
     }
 
+    @Transactional
     public void sendVerificationCode(String email, String fullName) {
         // If user is authenticated and user doesn't exist, create user record
         String firebaseUid = com.campex.backend.security.SecurityUtils.getCurrentFirebaseUid();
@@ -110,7 +112,7 @@ public class AuthService {
                 .build();
 
         verificationCodeRepository.save(verificationCode);
-        emailService.sendSimpleMessage(email, "Verify your email", "Your verification code is: " + code);
+        emailService.sendDurably(email, "Verify your email", "Your verification code is: " + code);
     }
 
     @Transactional
@@ -161,6 +163,7 @@ public class AuthService {
     }
 
     // Send password reset code
+    @Transactional
     public void sendPasswordResetCode(String email) {
         // Check if user exists
         User user = userRepository.findByEmail(email)
@@ -177,7 +180,7 @@ public class AuthService {
                 .build();
 
         verificationCodeRepository.save(verificationCode);
-        emailService.sendSimpleMessage(email, "Reset your password", 
+        emailService.sendDurably(email, "Reset your password", 
             "Your password reset code is: " + code + ". This code will expire in 10 minutes.");
     }
 
@@ -0,0 +1,218 @@
+package com.campex.backend.service;
+
+import com.campex.backend.dto.response.BadgeResponse;
+import com.campex.backend.model.User;
+import com.campex.backend.repository.BroadcastNotificationRepository;
+import com.campex.backend.repository.ConversationRepository;
+import com.campex.backend.repository.NotificationRepository;
+import com.campex.backend.repository.UserRepository;
+import com.campex.backend.security.SecurityUtils;
+import com.campex.backend.util.TransactionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory unread counters behind the app badges (GET /api/badges), so polling them reads two numbers
+ * instead of counting rows.
+ * <p>
+ * A user's counters are loaded from the database the first time they are read, then kept current by
+ * atomic per-user updates when messages and notifications are created or read (after the transaction
+ * commits). Changes too broad to apply as a delta (deleted conversations, broadcast read/dismiss) drop the
+ * entry so it reloads. A load that a delta raced is served but not kept, since the count may or may not
+ * include it, so local updates are not lost to a reload. What remains is drift from updates made through
+ * other instances (and a delta whose commit the query saw but whose callback only ran after the load
+ * finished); app.badges.max-age-ms bounds both by dropping entries once they are that old.
+ */
+@Component
+public class BadgeCounterService {
+
+    private final ConversationRepository conversationRepository;
+    private final NotificationRepository notificationRepository;
+    private final BroadcastNotificationRepository broadcastNotificationRepository;
+    private final UserRepository userRepository;
+    private final long maxAgeMs;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+    private final Map<Long, Load> loads = new ConcurrentHashMap<>(); // in flight, so racing deltas can flag them
+    private final Map<String, Long> userIdsByUid = new ConcurrentHashMap<>(); // saves the user lookup per poll
+
+    public BadgeCounterService(ConversationRepository conversationRepository,
+                               NotificationRepository notificationRepository,
+                               BroadcastNotificationRepository broadcastNotificationRepository,
+                               UserRepository userRepository,
+                               @Value("${app.badges.max-age-ms:600000}") long maxAgeMs) {
+        this.conversationRepository = conversationRepository;
+        this.notificationRepository = notificationRepository;
+        this.broadcastNotificationRepository = broadcastNotificationRepository;
+        this.userRepository = userRepository;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    public BadgeResponse getBadges() {
+        String uid = SecurityUtils.getCurrentFirebaseUid();
+        if (uid == null) {
+            throw new IllegalArgumentException("User not authenticated");
+        }
+        Long userId = userIdsByUid.get(uid);
+        if (userId == null) {
+            userId = userRepository.findByFirebaseUid(uid)
+                    .orElseThrow(() -> new IllegalArgumentException("User profile not created. Please create your profile first."))
+                    .getId();
+            userIdsByUid.put(uid, userId);
+        }
+        Counters entry = counters(userId);
+        return BadgeResponse.builder()
+                .unreadMessages(entry.messages.get())
+                .unreadNotifications(entry.notifications.get())
+                .build();
+    }
+
+    public long getUnreadMessages(Long userId) {
+        return counters(userId).messages.get();
+    }
+
+    // Deltas are applied once the surrounding transaction commits, and only to users already cached
+
+    public void messagesAddedAfterCommit(Long userId, long count) {
+        TransactionUtils.afterCommit(() -> add(userId, count, 0));
+    }
+
+    public void messagesReadAfterCommit(Long userId, long count) {
+        TransactionUtils.afterCommit(() -> add(userId, -count, 0));
+    }
+
+    public void notificationsAddedAfterCommit(Long userId, long count) {
+        TransactionUtils.afterCommit(() -> add(userId, 0, count));
+    }
+
+    public void notificationsReadAfterCommit(Long userId, long count) {
+        TransactionUtils.afterCommit(() -> add(userId, 0, -count));
+    }
+
+    public void notificationsClearedAfterCommit(Long userId) {
+        TransactionUtils.afterCommit(() -> {
+            markRaced(userId);
+            Counters entry = counters.get(userId);
+            if (entry != null) {
+                entry.notifications.set(0);
+            }
+        });
+    }
+
+    // A broadcast reaches every user but its sender
+    public void broadcastAddedAfterCommit(Long senderId) {
+        TransactionUtils.afterCommit(() -> {
+            loads.forEach((userId, load) -> {
+                if (!userId.equals(senderId)) {
+                    load.markRaced();
+                }
+            });
+            counters.forEach((userId, entry) -> {
+                if (!userId.equals(senderId)) {
+                    entry.notifications.incrementAndGet();
+                }
+            });
+        });
+    }
+
+    public void invalidateAfterCommit(Long... userIds) {
+        TransactionUtils.afterCommit(() -> {
+            for (Long userId : userIds) {
+                markRaced(userId);
+                counters.remove(userId);
+            }
+        });
+    }
+
+    public void evictAfterCommit(User user) {
+        TransactionUtils.afterCommit(() -> {
+            markRaced(user.getId());
+            counters.remove(user.getId());
+            userIdsByUid.remove(user.getFirebaseUid());
+        });
+    }
+
+    // Drops entries past the maximum age: the next read reloads them, and idle users stop taking memory
+    @Scheduled(fixedDelayString = "${app.badges.max-age-ms:600000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        counters.values().removeIf(entry -> now - entry.loadedAt >= maxAgeMs);
+        userIdsByUid.values().removeIf(userId -> !counters.containsKey(userId));
+    }
+
+    private Counters counters(Long userId) {
+        long now = System.currentTimeMillis();
+        Counters entry = counters.get(userId);
+        if (entry != null && now - entry.loadedAt < maxAgeMs) {
+            return entry;
+        }
+
+        Load load = new Load();
+        loads.put(userId, load);
+        try {
+            Counters loaded = new Counters(
+                    conversationRepository.sumUnread(userId),
+                    notificationRepository.countByUserIdAndIsReadFalse(userId)
+                            + broadcastNotificationRepository.countUnreadVisibleTo(userId),
+                    now);
+            synchronized (load) {
+                // A delta committed during the query may or may not be counted, so don't keep the result
+                if (load.raced) {
+                    counters.remove(userId);
+                } else {
+                    counters.put(userId, loaded);
+                }
+            }
+            return loaded;
+        } finally {
+            loads.remove(userId, load);
+        }
+    }
+
+    private void markRaced(Long userId) {
+        Load load = loads.get(userId);
+        if (load != null) {
+            load.markRaced();
+        }
+    }
+
+    private void add(Long userId, long messages, long notifications) {
+        markRaced(userId);
+        Counters entry = counters.get(userId);
+        if (entry == null) {
+            return;
+        }
+        if (messages != 0) {
+            entry.messages.updateAndGet(value -> Math.max(0, value + messages));
+        }
+        if (notifications != 0) {
+            entry.notifications.updateAndGet(value -> Math.max(0, value + notifications));
+        }
+    }
+
+    // Flagged before a delta looks up the entry, so a load either sees the flag or installs first and gets the delta
+    private static final class Load {
+        boolean raced;
+
+        synchronized void markRaced() {
+            raced = true;
+        }
+    }
+
+    private static final class Counters {
+        final AtomicLong messages;
+        final AtomicLong notifications;
+        final long loadedAt;
+
+        Counters(long messages, long notifications, long loadedAt) {
+            this.messages = new AtomicLong(messages);
+            this.notifications = new AtomicLong(notifications);
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.campex.backend.service;
+
+import com.campex.backend.repository.BlockedUserRepository;
+import com.campex.backend.util.TransactionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of the block graph around each user: the ids they blocked and the ids that blocked
+ * them, as sorted primitive arrays searched with binary search.
+ * <p>
+ * A user's sets are loaded with one query the first time they are checked. UserService block/unblock
+ * updates cached sets in place after commit, and account deletion evicts them. Entries also expire after
+ * app.block-cache.ttl-ms, which bounds how long a block made through another instance goes unnoticed here.
+ */
+@Component
+public class BlockGraphCache {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final BlockedUserRepository blockedUserRepository;
+    private final long ttlMs;
+
+    private final Map<Long, Entry> entries;
+    private long generation; // bumped by every update, stops sets loaded before it from racing back in
+
+    public BlockGraphCache(BlockedUserRepository blockedUserRepository,
+                           @Value("${app.block-cache.max-entries:10000}") int maxEntries,
+                           @Value("${app.block-cache.ttl-ms:300000}") long ttlMs) {
+        this.blockedUserRepository = blockedUserRepository;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Whether either user has blocked the other. Only a's entry is needed: it holds both directions.
+     */
+    public boolean isBlockedEitherWay(Long a, Long b) {
+        Entry entry = entry(a);
+        return contains(entry.blocked, b) || contains(entry.blockedBy, b);
+    }
+
+    public boolean hasBlocked(Long blockerId, Long blockedId) {
+        return contains(entry(blockerId).blocked, blockedId);
+    }
+
+    // Called inside the block/unblock transaction; the cached sets change once it commits
+    public void blockedAfterCommit(Long blockerId, Long blockedId) {
+        TransactionUtils.afterCommit(() -> update(blockerId, blockedId, true));
+    }
+
+    public void unblockedAfterCommit(Long blockerId, Long blockedId) {
+        TransactionUtils.afterCommit(() -> update(blockerId, blockedId, false));
+    }
+
+    // Drops the user's entry and the entries that reference them
+    public void evictAfterCommit(Long userId) {
+        TransactionUtils.afterCommit(() -> evict(userId));
+    }
+
+    private Entry entry(Long userId) {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null && now - entry.loadedAt < ttlMs) {
+                return entry;
+            }
+            loadGeneration = generation;
+        }
+
+        Entry loaded = load(userId, now);
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private Entry load(Long userId, long now) {
+        List<BlockedUserRepository.BlockEdge> edges = blockedUserRepository.findEdgesOf(userId);
+        long[] blocked = new long[edges.size()];
+        long[] blockedBy = new long[edges.size()];
+        int blockedCount = 0;
+        int blockedByCount = 0;
+        for (BlockedUserRepository.BlockEdge edge : edges) {
+            if (edge.getBlockerId().equals(userId)) {
+                blocked[blockedCount++] = edge.getBlockedId();
+            }
+            if (edge.getBlockedId().equals(userId)) {
+                blockedBy[blockedByCount++] = edge.getBlockerId();
+            }
+        }
+        return new Entry(sorted(blocked, blockedCount), sorted(blockedBy, blockedByCount), now);
+    }
+
+    private synchronized void update(Long blockerId, Long blockedId, boolean add) {
+        generation++;
+        Entry blocker = entries.get(blockerId);
+        if (blocker != null) {
+            entries.put(blockerId, new Entry(with(blocker.blocked, blockedId, add), blocker.blockedBy, blocker.loadedAt));
+        }
+        Entry blocked = entries.get(blockedId);
+        if (blocked != null) {
+            entries.put(blockedId, new Entry(blocked.blocked, with(blocked.blockedBy, blockerId, add), blocked.loadedAt));
+        }
+    }
+
+    private synchronized void evict(Long userId) {
+        generation++;
+        Entry entry = entries.remove(userId);
+        if (entry != null) {
+            Arrays.stream(entry.blocked).forEach(entries::remove);
+            Arrays.stream(entry.blockedBy).forEach(entries::remove);
+        }
+    }
+
+    private static boolean contains(long[] sorted, Long id) {
+        return id != null && Arrays.binarySearch(sorted, id) >= 0;
+    }
+
+    private static long[] sorted(long[] values, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        long[] result = Arrays.copyOf(values, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Copy of the sorted set with the id added or removed; entries are never mutated once published
+    private static long[] with(long[] sorted, long id, boolean add) {
+        int index = Arrays.binarySearch(sorted, id);
+        if (add == index >= 0) {
+            return sorted;
+        }
+        if (add) {
+            int insertAt = -index - 1;
+            long[] result = new long[sorted.length + 1];
+            System.arraycopy(sorted, 0, result, 0, insertAt);
+            result[insertAt] = id;
+            System.arraycopy(sorted, insertAt, result, insertAt + 1, sorted.length - insertAt);
+            return result;
+        }
+        long[] result = new long[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, index);
+        System.arraycopy(sorted, index + 1, result, index, sorted.length - index - 1);
+        return result;
+    }
+
+    private record Entry(long[] blocked, long[] blockedBy, long loadedAt) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.campex.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Pushes one chunk of a broadcast queued by NotificationFanoutService.broadcast
+ */
+@Component
+@RequiredArgsConstructor
+public class BroadcastPushJobHandler implements JobHandler {
+
+    public static final String TYPE = "BROADCAST_PUSH";
+
+    private final NotificationFanoutService notificationFanoutService;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(Map<String, Object> payload) {
+        Number broadcastId = (Number) payload.get("broadcastId");
+        Number excludeUserId = (Number) payload.get("excludeUserId");
+        notificationFanoutService.pushChunk(broadcastId != null ? broadcastId.longValue() : null,
+                excludeUserId != null ? excludeUserId.longValue() : null,
+                (String) payload.get("title"), (String) payload.get("body"), (String) payload.get("type"),
+                ((Number) payload.get("afterUserId")).longValue());
+    }
+}
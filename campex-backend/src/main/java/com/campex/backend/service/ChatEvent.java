@@ -0,0 +1,11 @@
+package com.campex.backend.service;
+
+import com.campex.backend.dto.response.MessageResponse;
+
+import java.util.List;
+
+/**
+ * A message to push to every connected device of the given users (both conversation participants)
+ */
+public record ChatEvent(List<Long> recipientIds, MessageResponse message) {
+}
@@ -0,0 +1,12 @@
+package com.campex.backend.service;
+
+/**
+ * Fans chat events out to the ChatStreamRegistry of every app instance.
+ * <p>
+ * publish() is called inside the sending transaction; implementations must deliver only once it commits.
+ * Selected with app.chat.broadcast: "local" (single instance, default) or "postgres" (LISTEN/NOTIFY).
+ */
+public interface ChatEventBroadcaster {
+
+    void publish(ChatEvent event);
+}
@@ -0,0 +1,163 @@
+package com.campex.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent event connections of the users connected to this instance.
+ * <p>
+ * Each connection has a bounded outbound queue drained on a small shared pool, so a send never blocks the
+ * thread that committed the message. A connection whose queue is full is a slow consumer: it is closed,
+ * and the client reconnects and catches up through the regular message endpoints.
+ */
+@Component
+@Slf4j
+public class ChatStreamRegistry {
+
+    private static final int MAX_CONNECTIONS_PER_USER = 5;
+
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final Map<Long, List<Connection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+
+    public ChatStreamRegistry(@Value("${app.chat.stream.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${app.chat.stream.buffer-size:256}") int bufferSize,
+                              @Value("${app.chat.stream.sender-threads:4}") int senderThreads) {
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "chat-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter register(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(userId, emitter, new ArrayBlockingQueue<>(bufferSize));
+
+        List<Connection> connections = connectionsByUser.compute(userId, (id, existing) -> {
+            List<Connection> list = existing != null ? existing : new CopyOnWriteArrayList<>();
+            list.add(connection);
+            return list;
+        });
+        // Oldest tabs/devices make room when a user opens too many streams
+        while (connections.size() > MAX_CONNECTIONS_PER_USER) {
+            close(connections.get(0));
+        }
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> close(connection));
+        emitter.onError(error -> remove(connection));
+
+        enqueue(connection, SseEmitter.event().name("ready").data("connected"));
+        return emitter;
+    }
+
+    /**
+     * Push an event to every connection of its recipients on this instance
+     */
+    public void deliver(ChatEvent event) {
+        for (Long userId : event.recipientIds()) {
+            List<Connection> connections = connectionsByUser.get(userId);
+            if (connections == null) {
+                continue;
+            }
+            for (Connection connection : connections) {
+                enqueue(connection, SseEmitter.event()
+                        .name("message")
+                        .id(String.valueOf(event.message().getId()))
+                        .data(event.message()));
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and detects dead clients
+    @Scheduled(fixedDelayString = "${app.chat.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        connectionsByUser.values().forEach(connections ->
+                connections.forEach(connection -> enqueue(connection, SseEmitter.event().comment("keepalive"))));
+    }
+
+    public int connectionCount() {
+        return connectionsByUser.values().stream().mapToInt(List::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionsByUser.values().forEach(connections -> connections.forEach(this::close));
+        senders.shutdownNow();
+    }
+
+    private void enqueue(Connection connection, SseEmitter.SseEventBuilder event) {
+        if (!connection.queue.offer(event)) {
+            log.warn("Closing slow chat stream for user {}: {} events pending", connection.userId, bufferSize);
+            close(connection);
+            return;
+        }
+        if (connection.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(connection));
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = connection.queue.poll()) != null) {
+                connection.emitter.send(event);
+            }
+        } catch (Exception e) {
+            // Client went away mid-write
+            close(connection);
+            return;
+        } finally {
+            connection.draining.set(false);
+        }
+        // An event may have been queued after the last poll but before draining was reset
+        if (!connection.queue.isEmpty() && connection.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(connection));
+        }
+    }
+
+    private void close(Connection connection) {
+        remove(connection);
+        connection.queue.clear();
+        try {
+            connection.emitter.complete();
+        } catch (Exception ignored) {
+            // Already completed
+        }
+    }
+
+    private void remove(Connection connection) {
+        connectionsByUser.computeIfPresent(connection.userId, (id, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    private record Connection(Long userId, SseEmitter emitter, Queue<SseEmitter.SseEventBuilder> queue,
+                              AtomicBoolean draining) {
+
+        Connection(Long userId, SseEmitter emitter, Queue<SseEmitter.SseEventBuilder> queue) {
+            this(userId, emitter, queue, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.campex.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Background removal of soft-deleted conversations (see MessageService.deleteConversation).
+ * <p>
+ * Messages are deleted in fixed-size chunks, each its own short auto-committed statement, so purging a
+ * very long chat never holds locks or a large transaction. The conversation row goes last, once it has
+ * no messages left. Every step is idempotent, so an interrupted purge simply continues on the next run.
+ */
+@Component
+@Slf4j
+public class ConversationPurger {
+
+    private static final int CONVERSATIONS_PER_RUN = 10;
+
+    private static final String DELETE_MESSAGE_CHUNK =
+            "DELETE FROM messages WHERE id IN " +
+            "(SELECT m.id FROM messages m WHERE m.conversation_id = ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+
+    public ConversationPurger(JdbcTemplate jdbcTemplate,
+                              @Value("${app.chat.purge.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.purge.interval-ms:60000}")
+    public void purge() {
+        List<Long> conversationIds = jdbcTemplate.queryForList(
+                "SELECT id FROM conversations WHERE deleted_at IS NOT NULL ORDER BY deleted_at LIMIT ?",
+                Long.class, CONVERSATIONS_PER_RUN);
+        for (Long conversationId : conversationIds) {
+            try {
+                int deleted = 0;
+                int chunk;
+                do {
+                    chunk = jdbcTemplate.update(DELETE_MESSAGE_CHUNK, conversationId, chunkSize);
+                    deleted += chunk;
+                } while (chunk == chunkSize);
+                jdbcTemplate.update("DELETE FROM conversations WHERE id = ? AND deleted_at IS NOT NULL", conversationId);
+                log.info("Purged deleted conversation {} ({} messages)", conversationId, deleted);
+            } catch (Exception e) {
+                // Retried on the next run
+                log.error("Failed to purge conversation {}: {}", conversationId, e.getMessage());
+            }
+        }
+    }
+}
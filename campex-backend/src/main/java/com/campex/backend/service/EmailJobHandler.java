@@ -0,0 +1,28 @@
+package com.campex.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Sends an email queued by EmailService.sendDurably
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailJobHandler implements JobHandler {
+
+    public static final String TYPE = "EMAIL";
+
+    private final EmailService emailService;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(Map<String, Object> payload) {
+        emailService.send((String) payload.get("to"), (String) payload.get("subject"), (String) payload.get("text"));
+    }
+}
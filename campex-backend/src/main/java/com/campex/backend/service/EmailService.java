@@ -6,17 +6,19 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
     private final JavaMailSender emailSender;
+    private final JobQueue jobQueue;
     
     @Value("${spring.mail.password:}")
     private String mailPassword;
@@ -42,78 +44,32 @@ public class EmailService {
         }
     }
 
-    @Async
-    public void sendSimpleMessage(String to, String subject, String text) {
-        // Validate email configuration before attempting to send
-        if (mailPassword == null || mailPassword.isEmpty()) {
-            log.error("Cannot send email: MAIL_PASSWORD is not configured. Email to {} with subject '{}' was not sent.", to, subject);
-            return; // Fail gracefully instead of throwing exception
-        }
-        
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(senderEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            
-            log.info("Attempting to send email to: {}, subject: {}", to, subject);
-            emailSender.send(message);
-            log.info("Email sent successfully to: {}", to);
-        } catch (MailException e) {
-            log.error("Failed to send email to {}: {}. Subject: '{}'", to, e.getMessage(), subject, e);
-            // Don't throw exception for async email sending - just log the error
-            // This prevents email failures from breaking the main flow
-        } catch (Exception e) {
-            log.error("Unexpected error while sending email to {}: {}. Subject: '{}'", to, e.getMessage(), subject, e);
-        }
+    // Queue an email as a durable job in the current transaction; sent (and retried) by EmailJobHandler
+    public void sendDurably(String to, String subject, String text) {
+        jobQueue.enqueue(EmailJobHandler.TYPE, Map.of("to", to, "subject", subject, "text", text));
     }
-    
-    // Synchronous version for critical emails (like reports) where we need to ensure they're sent
-    public void sendSimpleMessageSync(String to, String subject, String text) {
-        // Validate email configuration before attempting to send
+
+    // Send now and let failures propagate, so the job queue can retry
+    public void send(String to, String subject, String text) {
         if (mailPassword == null || mailPassword.isEmpty()) {
-            log.error("Cannot send email: MAIL_PASSWORD is not configured. Email to {} with subject '{}' was not sent.", to, subject);
-            // For report emails, we don't want to fail the report creation if email is misconfigured
-            // The report is already saved in the database, so email failure is non-critical
-            log.warn("Report email not sent due to missing email configuration. Report is saved in database.");
-            return; // Don't throw - allow report creation to succeed even if email fails
+            throw new IllegalStateException("MAIL_PASSWORD is not configured");
         }
-        
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(senderEmail);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(text);
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(senderEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            
-            log.info("Attempting to send email synchronously to: {}, subject: {}", to, subject);
             emailSender.send(message);
-            log.info("Email sent successfully to: {}", to);
         } catch (MailException e) {
-            String errorMsg = e.getMessage();
-            boolean isConnectionError = errorMsg != null && (
-                errorMsg.contains("Connection timed out") || 
-                errorMsg.contains("Couldn't connect to host") ||
-                errorMsg.contains("Connection refused")
-            );
-            
-            if (isConnectionError) {
+            String error = e.getMessage();
+            if (error != null && (error.contains("Connection timed out") ||
+                    error.contains("Couldn't connect to host") || error.contains("Connection refused"))) {
                 log.error("SMTP connection failed. This may be due to your hosting provider blocking outbound SMTP connections. " +
-                    "Consider using a transactional email service (SendGrid, Mailgun, AWS SES) or ensure SMTP ports are not blocked. " +
-                    "Email to {} with subject '{}' was not sent. Error: {}", to, subject, errorMsg);
-                log.warn("Report email not sent due to SMTP connection failure. Report is saved in database.");
-                // Don't throw - allow report creation to succeed even if email fails
-                return;
+                    "Consider using a transactional email service (SendGrid, Mailgun, AWS SES) or ensure SMTP ports are not blocked.");
             }
-            
-            log.error("Failed to send email to {}: {}. Subject: '{}'", to, errorMsg, subject, e);
-            log.warn("Report email not sent due to email error. Report is saved in database.");
-            // Don't throw - email failure should not break report creation
-        } catch (Exception e) {
-            log.error("Unexpected error while sending email to {}: {}. Subject: '{}'", to, e.getMessage(), subject, e);
-            log.warn("Report email not sent due to unexpected error. Report is saved in database.");
-            // Don't throw - email failure should not break report creation
+            throw e;
         }
+        log.info("Email sent successfully to: {}", to);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,12 @@
 package com.campex.backend.service;
 
+import com.campex.backend.config.AsyncConfig;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.vision.v1.*;
 import com.google.protobuf.ByteString;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -12,6 +14,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ImageModerationService {
@@ -38,6 +41,20 @@ public class ImageModerationService {
     }
 
     public ValidationResult validateImage(MultipartFile file) {
+        try {
+            return validateImage(file.getBytes());
+        } catch (IOException e) {
+            return new ValidationResult(false, "Unable to read image. Please try another image.");
+        }
+    }
+
+    // Runs the check on the bounded moderation executor; rejected with TaskRejectedException when it is full
+    @Async(AsyncConfig.MODERATION_EXECUTOR)
+    public CompletableFuture<ValidationResult> validateImageAsync(byte[] imageBytes) {
+        return CompletableFuture.completedFuture(validateImage(imageBytes));
+    }
+
+    public ValidationResult validateImage(byte[] imageBytes) {
         try {
             // Load credentials from Spring config
             GoogleCredentials credentials;
@@ -51,7 +68,7 @@ public class ImageModerationService {
                     .build();
             
             try (ImageAnnotatorClient vision = ImageAnnotatorClient.create(settings)) {
-                ByteString imgBytes = ByteString.copyFrom(file.getBytes());
+                ByteString imgBytes = ByteString.copyFrom(imageBytes);
 
                 Image img = Image.newBuilder().setContent(imgBytes).build();
                 Feature feat = Feature.newBuilder().setType(Feature.Type.SAFE_SEARCH_DETECTION).build();
@@ -20,7 +20,7 @@ public class ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final NotificationFanoutService notificationFanoutService;
 
     @Transactional
     public ItemRequestResponse createRequest(CreateItemRequestRequest request) {
@@ -41,17 +41,14 @@ public class ItemRequestService {
 
         ItemRequest saved = itemRequestRepository.save(itemRequest);
 
-        // Broadcast notification to all other users
-        userRepository.findAll().stream()
-                .filter(user -> !user.getId().equals(requester.getId()))
-                .forEach(user -> {
-                    notificationService.sendNotification(
-                            user,
-                            "New Item Request",
-                            requester.getFullName() + " is looking for: " + request.getTitle(),
-                            "ITEM_REQUEST"
-                    );
-                });
+        // Broadcast notification to all other users: stored once with the request, its push queued as
+        // durable jobs in the same transaction
+        notificationFanoutService.broadcast(
+                requester.getId(),
+                "New Item Request",
+                requester.getFullName() + " is looking for: " + request.getTitle(),
+                "ITEM_REQUEST"
+        );
 
         return mapToResponse(saved, requester.getId());
     }
@@ -0,0 +1,15 @@
+package com.campex.backend.service;
+
+import java.util.Map;
+
+/**
+ * Runs one type of durable job. Throwing schedules a retry with backoff, until the job's attempts run out
+ * and it is dead-lettered. Jobs can run more than once (e.g. after a crash mid-run), so handlers should
+ * tolerate repeats.
+ */
+public interface JobHandler {
+
+    String type();
+
+    void handle(Map<String, Object> payload) throws Exception;
+}
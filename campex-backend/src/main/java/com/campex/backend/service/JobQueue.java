@@ -0,0 +1,46 @@
+package com.campex.backend.service;
+
+import com.campex.backend.util.TransactionUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Enqueues durable jobs into the jobs table. The INSERT joins the caller's transaction, so a job exists
+ * exactly when the write that caused it commits. Local workers are woken after commit; other instances
+ * find the job on their next poll.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobQueue {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.jobs.max-attempts:8}")
+    private int maxAttempts;
+
+    public void enqueue(String type, Map<String, Object> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Job payload is not serializable", e);
+        }
+        jdbcTemplate.update(
+                "INSERT INTO jobs (type, payload, status, attempts, max_attempts, run_at, created_at) " +
+                "VALUES (?, CAST(? AS jsonb), 'PENDING', 0, ?, now(), now())",
+                type, json, maxAttempts);
+        TransactionUtils.afterCommit(() -> eventPublisher.publishEvent(new JobsEnqueued()));
+    }
+
+    public record JobsEnqueued() {
+    }
+}
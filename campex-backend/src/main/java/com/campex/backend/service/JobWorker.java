@@ -0,0 +1,261 @@
+package com.campex.backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Claims and runs durable jobs (see JobQueue) on a fixed worker pool.
+ * <p>
+ * A poller thread claims due jobs in one statement with FOR UPDATE SKIP LOCKED, so any number of instances
+ * can poll the same table without a broker and never claim the same job. It claims only as many as there are
+ * idle workers (at most app.jobs.batch-size), hands each to a worker on its own, and claims again as soon
+ * as any worker frees up, so one slow job never holds back the rest. A
+ * finished job is deleted. A failed one goes back to PENDING with exponential backoff, or to DEAD once
+ * its attempts are used up. Jobs left RUNNING by a crashed instance are released after
+ * app.jobs.lock-timeout-ms and run again.
+ * <p>
+ * A handler runs in a transaction that also deletes its job, so jobs it enqueues (such as the next chunk of
+ * a broadcast) exist exactly when the job is finished. The delete only matches the claim this run made; if
+ * the job was released and claimed again meanwhile, the run is rolled back so the follow-ups aren't doubled.
+ */
+@Component
+@Slf4j
+public class JobWorker {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD = new TypeReference<>() {};
+    private static final long BASE_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 3_600_000;
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private static final String CLAIM =
+            "UPDATE jobs SET status = 'RUNNING', locked_at = now(), attempts = attempts + 1 " +
+            "WHERE id IN (SELECT id FROM jobs WHERE status = 'PENDING' AND run_at <= now() " +
+            "  ORDER BY run_at, id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, type, CAST(payload AS TEXT) AS payload, attempts, max_attempts";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, JobHandler> handlers = new HashMap<>();
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long lockTimeoutMs;
+    private final ExecutorService workers;
+    private final Semaphore idleWorkers;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Object signal = new Object();
+    private boolean wakeRequested; // guarded by signal
+    private volatile boolean running = true;
+    private Thread poller;
+    private long lastReleaseAt;
+
+    public JobWorker(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                     MeterRegistry meterRegistry,
+                     List<JobHandler> handlers,
+                     @Value("${app.jobs.worker-threads:4}") int workerThreads,
+                     @Value("${app.jobs.batch-size:20}") int batchSize,
+                     @Value("${app.jobs.poll-interval-ms:1000}") long pollIntervalMs,
+                     @Value("${app.jobs.lock-timeout-ms:300000}") long lockTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        handlers.forEach(handler -> this.handlers.put(handler.type(), handler));
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.lockTimeoutMs = lockTimeoutMs;
+
+        this.idleWorkers = new Semaphore(workerThreads);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "job-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("campex.jobs.in_flight", inFlight);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        poller = new Thread(this::poll, "job-poller");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    // Jobs were committed on this instance: claim them now instead of on the next poll
+    @EventListener(JobQueue.JobsEnqueued.class)
+    public void wake() {
+        synchronized (signal) {
+            wakeRequested = true;
+            signal.notifyAll();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (poller != null) {
+            poller.interrupt();
+        }
+        // Let running jobs finish; anything still RUNNING afterwards is released by the lock timeout
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                releaseStaleLocks();
+                // Wait for at least one idle worker, then claim for all of them
+                idleWorkers.acquire();
+                int idle = 1 + idleWorkers.drainPermits();
+                int limit = Math.min(batchSize, idle);
+                List<ClaimedJob> jobs;
+                try {
+                    jobs = jdbcTemplate.query(CLAIM, (rs, rowNum) -> new ClaimedJob(
+                            rs.getLong("id"), rs.getString("type"), rs.getString("payload"),
+                            rs.getInt("attempts"), rs.getInt("max_attempts")), limit);
+                } finally {
+                    idleWorkers.release(idle);
+                }
+                for (ClaimedJob job : jobs) {
+                    idleWorkers.acquire();
+                    inFlight.incrementAndGet();
+                    workers.execute(() -> {
+                        try {
+                            run(job);
+                        } finally {
+                            inFlight.decrementAndGet();
+                            idleWorkers.release();
+                        }
+                    });
+                }
+                if (jobs.size() == limit) {
+                    continue; // likely more due, claim again once a worker is idle
+                }
+                synchronized (signal) {
+                    if (!wakeRequested) {
+                        signal.wait(pollIntervalMs);
+                    }
+                    wakeRequested = false;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                // Database unavailable etc. - back off for one interval and retry
+                log.error("Job poll failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void run(ClaimedJob job) {
+        long start = System.nanoTime();
+        String result;
+        try {
+            JobHandler handler = handlers.get(job.type());
+            if (handler == null) {
+                throw new IllegalStateException("No handler for job type " + job.type());
+            }
+            Map<String, Object> payload = objectMapper.readValue(job.payload(), PAYLOAD);
+            Boolean finished = transactionTemplate.execute(status -> {
+                try {
+                    handler.handle(payload);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new JobFailedException(e);
+                }
+                // attempts identifies this claim: a release and re-claim bumps it
+                int deleted = jdbcTemplate.update(
+                        "DELETE FROM jobs WHERE id = ? AND status = 'RUNNING' AND attempts = ?", job.id(), job.attempts());
+                if (deleted == 0) {
+                    status.setRollbackOnly();
+                }
+                return deleted > 0;
+            });
+            if (Boolean.TRUE.equals(finished)) {
+                result = "success";
+            } else {
+                log.warn("Job {} ({}) was claimed again while running, discarding this run", job.id(), job.type());
+                result = "superseded";
+            }
+        } catch (JobFailedException e) {
+            result = fail(job, (Exception) e.getCause());
+        } catch (Exception e) {
+            result = fail(job, e);
+        }
+        meterRegistry.counter("campex.jobs.processed", "type", job.type(), "result", result).increment();
+        meterRegistry.timer("campex.jobs.duration", "type", job.type())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    // Like the delete, only touches the job if it is still this run's claim
+    private String fail(ClaimedJob job, Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        if (job.attempts() >= job.maxAttempts()) {
+            log.error("Job {} ({}) dead after {} attempts: {}", job.id(), job.type(), job.attempts(), error);
+            jdbcTemplate.update("UPDATE jobs SET status = 'DEAD', locked_at = NULL, last_error = ? " +
+                    "WHERE id = ? AND status = 'RUNNING' AND attempts = ?", error, job.id(), job.attempts());
+            return "dead";
+        }
+        long backoffMs = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(job.attempts() - 1, 20));
+        log.warn("Job {} ({}) failed, attempt {} of {}, retrying in {} ms: {}",
+                job.id(), job.type(), job.attempts(), job.maxAttempts(), backoffMs, error);
+        jdbcTemplate.update("UPDATE jobs SET status = 'PENDING', locked_at = NULL, last_error = ?, " +
+                "run_at = now() + ? * INTERVAL '1 millisecond' WHERE id = ? AND status = 'RUNNING' AND attempts = ?",
+                error, backoffMs, job.id(), job.attempts());
+        return "retry";
+    }
+
+    // At most once a minute per instance
+    private void releaseStaleLocks() {
+        long now = System.currentTimeMillis();
+        if (now - lastReleaseAt < 60_000) {
+            return;
+        }
+        lastReleaseAt = now;
+        int released = jdbcTemplate.update("UPDATE jobs SET status = 'PENDING', locked_at = NULL " +
+                "WHERE status = 'RUNNING' AND locked_at < now() - ? * INTERVAL '1 millisecond'", lockTimeoutMs);
+        if (released > 0) {
+            log.warn("Released {} jobs left running past the lock timeout", released);
+        }
+    }
+
+    private record ClaimedJob(long id, String type, String payload, int attempts, int maxAttempts) {
+    }
+
+    // Carries a checked handler exception out of the transaction callback
+    private static class JobFailedException extends RuntimeException {
+        JobFailedException(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.campex.backend.service;
+
+import com.campex.backend.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process broadcaster for single-instance deployments
+ */
+@Component
+@ConditionalOnProperty(name = "app.chat.broadcast", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalChatEventBroadcaster implements ChatEventBroadcaster {
+
+    private final ChatStreamRegistry chatStreamRegistry;
+
+    @Override
+    public void publish(ChatEvent event) {
+        TransactionUtils.afterCommit(() -> chatStreamRegistry.deliver(event));
+    }
+}
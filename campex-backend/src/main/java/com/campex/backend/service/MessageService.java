@@ -2,39 +2,69 @@ package com.campex.backend.service;
 
 import com.campex.backend.dto.request.SendMessageRequest;
 import com.campex.backend.dto.response.ConversationResponse;
+import com.campex.backend.dto.response.CursorPageResponse;
 import com.campex.backend.dto.response.MessageResponse;
+import com.campex.backend.dto.response.MessageSearchHitResponse;
 import com.campex.backend.dto.response.ProductResponse;
+import com.campex.backend.dto.response.ReadStateResponse;
+import com.campex.backend.dto.response.StreamTicketResponse;
+import com.campex.backend.dto.response.SyncResponse;
 import com.campex.backend.dto.response.UserResponse;
 import com.campex.backend.model.Conversation;
 import com.campex.backend.model.Message;
 import com.campex.backend.model.Product;
 import com.campex.backend.model.User;
-import com.campex.backend.repository.BlockedUserRepository;
 import com.campex.backend.repository.ConversationRepository;
 import com.campex.backend.repository.MessageRepository;
-import com.campex.backend.repository.ProductRepository;
 import com.campex.backend.repository.UserRepository;
 import com.campex.backend.security.SecurityUtils;
+import com.campex.backend.security.StreamTicketService;
+import com.campex.backend.util.CursorUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MessageService {
 
+    private static final int INBOX_PAGE_SIZE = 50;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 50;
+    private static final int MAX_SYNC_CONVERSATIONS = 200;
+    private static final int MAX_SYNC_MESSAGES = 500;
+    // Sync cursors are moved back by this much, so writes committed a little after the time they stamped
+    // (created_at/updated_at are set before commit) are still picked up by the next sync
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(10);
+    public static final int PREVIEW_LENGTH = 200;
+    private static final TypeReference<List<String>> IMAGE_LIST = new TypeReference<>() {};
+
     private final MessageRepository messageRepository;
     private final ConversationRepository conversationRepository;
     private final UserRepository userRepository;
-    private final ProductRepository productRepository;
     private final NotificationService notificationService;
-    private final BlockedUserRepository blockedUserRepository;
+    private final BadgeCounterService badgeCounterService;
+    private final BlockGraphCache blockGraphCache;
+    private final ObjectMapper objectMapper;
+    private final ChatEventBroadcaster chatEventBroadcaster;
+    private final ChatStreamRegistry chatStreamRegistry;
+    private final StreamTicketService streamTicketService;
+
+    // Conversations with more messages than this are soft-deleted and purged by ConversationPurger
+    @Value("${app.chat.delete.soft-threshold:1000}")
+    private int softDeleteThreshold;
 
     @Transactional
     public MessageResponse sendMessage(SendMessageRequest request) {
@@ -45,93 +75,246 @@ public class MessageService {
         User sender = userRepository.findByFirebaseUid(uid)
                 .orElseThrow(() -> new IllegalArgumentException("User profile not created. Please create your profile first."));
 
-        User receiver = userRepository.findById(request.getReceiverId())
-                .orElseThrow(() -> new IllegalArgumentException("Receiver not found"));
+        Long receiverId = request.getReceiverId();
+        if (receiverId == null) {
+            throw new IllegalArgumentException("Receiver not found");
+        }
 
         // Check if either user blocked the other
-        boolean isSenderBlocked = blockedUserRepository.existsByBlockerIdAndBlockedId(
-            sender.getId(), receiver.getId());
-        boolean isReceiverBlocked = blockedUserRepository.existsByBlockerIdAndBlockedId(
-            receiver.getId(), sender.getId());
-        
-        if (isSenderBlocked || isReceiverBlocked) {
+        if (blockGraphCache.isBlockedEitherWay(sender.getId(), receiverId)) {
             throw new IllegalArgumentException("Cannot send message to blocked user");
         }
 
-        final Product product = request.getProductId() != null 
-            ? productRepository.findById(request.getProductId()).orElse(null)
-            : null;
-
-        // Find or create conversation
-        List<Conversation> conversations = conversationRepository
-                .findExistingConversations(sender.getId(), receiver.getId(), request.getProductId());
-        
-        Conversation conversation;
-        if (!conversations.isEmpty()) {
-            conversation = conversations.get(0); // Get the best match (ordered by CASE)
-        } else {
-            Conversation newConv = Conversation.builder()
-                    .user1(sender)
-                    .user2(receiver)
-                    .product(product)
-                    .lastMessageAt(LocalDateTime.now())
-                    .build();
-            conversation = conversationRepository.save(newConv);
-        }
+        // Find or create conversation (also checks that the receiver exists)
+        Long conversationId = conversationRepository
+                .upsertConversation(sender.getId(), receiverId, request.getProductId(), LocalDateTime.now())
+                .orElseThrow(() -> new IllegalArgumentException("Receiver not found"));
 
-        // Create message
+        // Create message. Conversation and receiver are references: only their ids are written.
         Message message = Message.builder()
-                .conversation(conversation)
+                .conversation(conversationRepository.getReferenceById(conversationId))
                 .sender(sender)
-                .receiver(receiver)
+                .receiver(userRepository.getReferenceById(receiverId))
                 .content(request.getContent())
                 .isRead(false)
                 .build();
 
         message = messageRepository.save(message);
 
-        // Update last message timestamp
-        conversation.setLastMessageAt(message.getCreatedAt());
-        conversationRepository.save(conversation);
+        // Update last message snapshot and unread counter in the same transaction
+        conversationRepository.recordMessage(conversationId, message.getId(), preview(message.getContent()),
+                sender.getId(), receiverId, message.getCreatedAt());
+        badgeCounterService.messagesAddedAfterCommit(receiverId, 1);
 
-        // Send notification
-        notificationService.sendNotification(
-                receiver, 
+        // Notification row plus a durable push job, committed with the message
+        notificationService.notifyDurably(
+                receiverId, 
                 "New Message", 
                 sender.getFullName() + ": " + request.getContent(),
                 "MESSAGE"
         );
 
-        return mapToMessageResponse(message);
+        // Push to both participants' open streams once this transaction commits
+        MessageResponse response = mapToMessageResponse(message);
+        chatEventBroadcaster.publish(new ChatEvent(List.of(sender.getId(), receiverId), response));
+
+        return response;
+    }
+
+    // Bulk mark-read of the messages the current user received, up to a message id (everything if null).
+    // The conversation row is locked first so a concurrent send is either fully counted or fully after.
+    @Transactional
+    public void markConversationRead(Long conversationId, Long upToMessageId) {
+        Long currentUserId = getCurrentUser().getId();
+        Conversation conversation = conversationRepository.findByIdForUpdate(conversationId)
+                .orElseThrow(() -> new IllegalArgumentException("Conversation not found"));
+        if (conversation.getDeletedAt() != null ||
+            (!conversation.getUser1().getId().equals(currentUserId) &&
+             !conversation.getUser2().getId().equals(currentUserId))) {
+            throw new IllegalArgumentException("Conversation not found");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int read = messageRepository.markReadUpTo(conversationId, currentUserId, upToMessageId, now);
+        conversationRepository.recountUnread(conversationId, currentUserId, now);
+        badgeCounterService.messagesReadAfterCommit(currentUserId, read);
+    }
+
+    // Total unread messages for the badge, from the in-memory badge counters
+    public long getUnreadCount() {
+        return badgeCounterService.getUnreadMessages(getCurrentUser().getId());
+    }
+
+    // Server-sent event stream of new messages for the current user's conversations
+    public SseEmitter openStream() {
+        return chatStreamRegistry.register(getCurrentUser().getId());
     }
 
+    // Single-use ticket for opening the stream, since EventSource can't send the Authorization header
+    public StreamTicketResponse issueStreamTicket() {
+        User user = getCurrentUser();
+        return StreamTicketResponse.builder()
+                .ticket(streamTicketService.issue(user.getFirebaseUid()))
+                .expiresInMs(streamTicketService.getTtlMs())
+                .build();
+    }
+
+    // Full conversation list, kept for existing clients. Walks the inbox pages, so it costs one query per
+    // INBOX_PAGE_SIZE conversations instead of several per conversation.
     public List<ConversationResponse> getConversations() {
-        String uid = SecurityUtils.getCurrentFirebaseUid();
-        if (uid == null) {
-            throw new IllegalArgumentException("User not authenticated");
+        Long currentUserId = getCurrentUser().getId();
+        List<ConversationResponse> conversations = new ArrayList<>();
+        List<ConversationRepository.InboxRow> rows;
+        LocalDateTime cursorActivityAt = null;
+        Long cursorId = null;
+        do {
+            rows = conversationRepository.findInbox(currentUserId, cursorActivityAt, cursorId, INBOX_PAGE_SIZE);
+            rows.forEach(row -> conversations.add(mapInboxRow(row)));
+            if (!rows.isEmpty()) {
+                cursorActivityAt = rows.get(rows.size() - 1).getActivityAt();
+                cursorId = rows.get(rows.size() - 1).getId();
+            }
+        } while (rows.size() == INBOX_PAGE_SIZE);
+        return conversations;
+    }
+
+    // One page of the inbox in a single query, most recent activity first
+    public CursorPageResponse<ConversationResponse> getInbox(String cursor, int size) {
+        Long currentUserId = getCurrentUser().getId();
+
+        LocalDateTime cursorActivityAt = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtils.decode(cursor, 2);
+            try {
+                cursorActivityAt = LocalDateTime.parse(parts[0]);
+                cursorId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
         }
-        User currentUser = userRepository.findByFirebaseUid(uid)
-                .orElseThrow(() -> new IllegalArgumentException("User profile not created"));
 
-        List<Conversation> conversations = conversationRepository.findByUser(currentUser.getId());
-        
-        // Filter out conversations with blocked users
-        return conversations.stream()
-                .filter(c -> {
-                    User otherUser = c.getUser1().getId().equals(currentUser.getId()) 
-                        ? c.getUser2() 
-                        : c.getUser1();
-                    
-                    // Check if either user blocked the other
-                    boolean isBlocked = blockedUserRepository.existsByBlockerIdAndBlockedId(
-                        currentUser.getId(), otherUser.getId());
-                    boolean isBlockedBy = blockedUserRepository.existsByBlockerIdAndBlockedId(
-                        otherUser.getId(), currentUser.getId());
-                    
-                    return !isBlocked && !isBlockedBy;
-                })
-                .map(c -> mapToConversationResponse(c, currentUser.getId()))
-                .collect(Collectors.toList());
+        int limit = Math.max(1, Math.min(size, INBOX_PAGE_SIZE));
+        // One extra row tells whether another page exists
+        List<ConversationRepository.InboxRow> rows =
+                conversationRepository.findInbox(currentUserId, cursorActivityAt, cursorId, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<ConversationRepository.InboxRow> page = hasNext ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            ConversationRepository.InboxRow last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(last.getActivityAt(), last.getId());
+        }
+
+        return CursorPageResponse.<ConversationResponse>builder()
+                .content(page.stream().map(this::mapInboxRow).toList())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(page.size())
+                .build();
+    }
+
+    // Ranked full-text search over the current user's messages. Cursor pages continue after (rank, id).
+    public CursorPageResponse<MessageSearchHitResponse> searchMessages(String query, String cursor, int size) {
+        Long currentUserId = getCurrentUser().getId();
+        String tsQuery = ProductFilter.toPrefixTsQuery(query);
+        if (tsQuery == null) {
+            return CursorPageResponse.<MessageSearchHitResponse>builder()
+                    .content(List.of())
+                    .hasNext(false)
+                    .size(0)
+                    .build();
+        }
+
+        Float cursorRank = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtils.decode(cursor, 2);
+            try {
+                cursorRank = Float.parseFloat(parts[0]);
+                cursorId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        int limit = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        // One extra row tells whether another page exists
+        List<MessageRepository.SearchHitRow> rows =
+                messageRepository.searchMessages(currentUserId, tsQuery, cursorRank, cursorId, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<MessageRepository.SearchHitRow> page = hasNext ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            MessageRepository.SearchHitRow last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(last.getRank(), last.getId());
+        }
+
+        return CursorPageResponse.<MessageSearchHitResponse>builder()
+                .content(page.stream().map(this::mapSearchHitRow).toList())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(page.size())
+                .build();
+    }
+
+    // Chat changes since the cursor: changed conversations, new messages and read receipts. Without a cursor,
+    // or when more changed than fits one response, the client is told to reload instead.
+    public SyncResponse sync(String since) {
+        Long currentUserId = getCurrentUser().getId();
+        // Taken before reading, so anything committed during the sync is picked up next time
+        String cursor = CursorUtils.encode(LocalDateTime.now().minus(SYNC_OVERLAP));
+
+        if (since == null || since.isBlank()) {
+            return fullResync(cursor);
+        }
+        LocalDateTime sinceAt;
+        try {
+            sinceAt = LocalDateTime.parse(CursorUtils.decode(since, 1)[0]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        // One extra row tells whether the limit was exceeded
+        List<ConversationRepository.InboxRow> conversations =
+                conversationRepository.findInboxChangedSince(currentUserId, sinceAt, MAX_SYNC_CONVERSATIONS + 1);
+        if (conversations.size() > MAX_SYNC_CONVERSATIONS) {
+            return fullResync(cursor);
+        }
+        List<Message> messages = conversations.isEmpty()
+                ? List.of()
+                : messageRepository.findCreatedSince(currentUserId, sinceAt, MAX_SYNC_MESSAGES + 1);
+        if (messages.size() > MAX_SYNC_MESSAGES) {
+            return fullResync(cursor);
+        }
+        List<ReadStateResponse> readStates = conversations.isEmpty()
+                ? List.of()
+                : messageRepository.findReadStateSince(currentUserId, sinceAt).stream()
+                        .map(row -> ReadStateResponse.builder()
+                                .conversationId(row.getConversationId())
+                                .readUpToMessageId(row.getReadUpToMessageId())
+                                .build())
+                        .toList();
+
+        return SyncResponse.builder()
+                .conversations(conversations.stream().map(this::mapInboxRow).toList())
+                .messages(messages.stream().map(this::mapToMessageResponse).toList())
+                .readStates(readStates)
+                .cursor(cursor)
+                .fullResync(false)
+                .build();
+    }
+
+    private static SyncResponse fullResync(String cursor) {
+        return SyncResponse.builder()
+                .conversations(List.of())
+                .messages(List.of())
+                .readStates(List.of())
+                .cursor(cursor)
+                .fullResync(true)
+                .build();
     }
 
     public Page<MessageResponse> getMessages(Long conversationId, Pageable pageable) {
@@ -139,6 +322,34 @@ public class MessageService {
                 .map(this::mapToMessageResponse);
     }
 
+    // Message history by message-id cursor. before: older messages, newest first. after: newer messages,
+    // oldest first. Neither: the latest messages. nextCursor is the message id to pass for the next page
+    // in the same direction.
+    public CursorPageResponse<MessageResponse> getMessageHistory(Long conversationId, Long before, Long after, int size) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use either before or after, not both");
+        }
+        Long currentUserId = getCurrentUser().getId();
+        if (!conversationRepository.isParticipant(conversationId, currentUserId)) {
+            throw new IllegalArgumentException("Conversation not found");
+        }
+
+        int limit = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        // One extra row tells whether another page exists
+        List<Message> messages = after != null
+                ? messageRepository.findHistoryAfter(conversationId, after, limit + 1)
+                : messageRepository.findHistoryBefore(conversationId, before, limit + 1);
+        boolean hasNext = messages.size() > limit;
+        List<Message> page = hasNext ? messages.subList(0, limit) : messages;
+
+        return CursorPageResponse.<MessageResponse>builder()
+                .content(page.stream().map(this::mapToMessageResponse).toList())
+                .nextCursor(hasNext ? String.valueOf(page.get(page.size() - 1).getId()) : null)
+                .hasNext(hasNext)
+                .size(page.size())
+                .build();
+    }
+
     @Transactional
     public ConversationResponse getOrCreateConversation(Long sellerId, Long productId) {
         String uid = SecurityUtils.getCurrentFirebaseUid();
@@ -148,33 +359,117 @@ public class MessageService {
         User currentUser = userRepository.findByFirebaseUid(uid)
                 .orElseThrow(() -> new IllegalArgumentException("User profile not created"));
 
-        User seller = userRepository.findById(sellerId)
+        if (sellerId == null) {
+            throw new IllegalArgumentException("Seller not found");
+        }
+
+        // Find or create conversation (also checks that the seller exists)
+        Long conversationId = conversationRepository
+                .upsertConversation(currentUser.getId(), sellerId, productId, LocalDateTime.now())
                 .orElseThrow(() -> new IllegalArgumentException("Seller not found"));
+        Conversation conversation = conversationRepository.findWithParticipantsById(conversationId)
+                .orElseThrow(() -> new IllegalArgumentException("Conversation not found"));
 
-        // Find or create conversation
-        List<Conversation> conversations = conversationRepository
-                .findExistingConversations(currentUser.getId(), seller.getId(), productId);
-        
-        Conversation conversation;
-        if (!conversations.isEmpty()) {
-            conversation = conversations.get(0); // Get the best match (ordered by CASE)
-        } else {
-            Conversation newConv = Conversation.builder()
-                    .user1(currentUser)
-                    .user2(seller)
-                    .product(productId != null ? 
-                            productRepository.findById(productId).orElse(null) : null)
-                    .lastMessageAt(LocalDateTime.now())
+        return mapToConversationResponse(conversation, currentUser.getId());
+    }
+
+    private User getCurrentUser() {
+        String uid = SecurityUtils.getCurrentFirebaseUid();
+        if (uid == null) {
+            throw new IllegalArgumentException("User not authenticated");
+        }
+        return userRepository.findByFirebaseUid(uid)
+                .orElseThrow(() -> new IllegalArgumentException("User profile not created"));
+    }
+
+    private ConversationResponse mapInboxRow(ConversationRepository.InboxRow row) {
+        UserResponse otherUserResponse = UserResponse.builder()
+                .id(row.getOtherUserId())
+                .email(row.getOtherUserEmail())
+                .fullName(row.getOtherUserFullName())
+                .profilePhotoUrl(row.getOtherUserProfilePhotoUrl())
+                .academicYear(row.getOtherUserAcademicYear())
+                .phoneNumber(row.getOtherUserPhoneNumber())
+                .isVerified(Boolean.TRUE.equals(row.getOtherUserVerified()))
+                .createdAt(row.getOtherUserCreatedAt())
+                .build();
+
+        // Minimal product info for the conversation list
+        ProductResponse productResponse = null;
+        if (row.getProductId() != null) {
+            productResponse = ProductResponse.builder()
+                    .id(row.getProductId())
+                    .title(row.getProductTitle())
+                    .category(row.getProductCategory())
+                    .price(row.getProductPrice())
+                    .isFree(Boolean.TRUE.equals(row.getProductFree()))
+                    .isNegotiable(Boolean.TRUE.equals(row.getProductNegotiable()))
+                    .status(row.getProductStatus())
+                    .images(parseImages(row.getProductImages()))
+                    .isSaved(false) // Not relevant in conversation context
+                    .createdAt(row.getProductCreatedAt())
                     .build();
-            conversation = conversationRepository.save(newConv);
         }
 
-        return mapToConversationResponse(conversation, currentUser.getId());
+        return ConversationResponse.builder()
+                .id(row.getId())
+                .otherUser(otherUserResponse)
+                .product(productResponse)
+                .lastMessage(row.getLastMessage())
+                .isLastMessageRead(Boolean.TRUE.equals(row.getLastMessageRead()))
+                .lastMessageSenderId(row.getLastMessageSenderId())
+                .lastMessageAt(row.getActivityAt())
+                .unreadCount(row.getUnreadCount())
+                .build();
+    }
+
+    private MessageSearchHitResponse mapSearchHitRow(MessageRepository.SearchHitRow row) {
+        MessageResponse message = MessageResponse.builder()
+                .id(row.getId())
+                .conversationId(row.getConversationId())
+                .senderId(row.getSenderId())
+                .receiverId(row.getReceiverId())
+                .content(row.getContent())
+                .isRead(Boolean.TRUE.equals(row.getRead()))
+                .createdAt(row.getCreatedAt())
+                .build();
+
+        UserResponse otherUser = UserResponse.builder()
+                .id(row.getOtherUserId())
+                .fullName(row.getOtherUserFullName())
+                .profilePhotoUrl(row.getOtherUserProfilePhotoUrl())
+                .build();
+
+        ProductResponse product = row.getProductId() != null
+                ? ProductResponse.builder().id(row.getProductId()).title(row.getProductTitle()).build()
+                : null;
+
+        return MessageSearchHitResponse.builder()
+                .message(message)
+                .otherUser(otherUser)
+                .product(product)
+                .build();
+    }
+
+    private static String preview(String content) {
+        return content != null && content.length() > PREVIEW_LENGTH ? content.substring(0, PREVIEW_LENGTH) : content;
+    }
+
+    private List<String> parseImages(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, IMAGE_LIST);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
     }
 
     private MessageResponse mapToMessageResponse(Message msg) {
         return MessageResponse.builder()
                 .id(msg.getId())
+                .conversationId(msg.getConversation().getId())
                 .senderId(msg.getSender().getId())
                 .receiverId(msg.getReceiver().getId())
                 .content(msg.getContent())
@@ -236,6 +531,8 @@ public class MessageService {
                 .build();
     }
 
+    // Small conversations are deleted outright with two bulk statements. Larger ones are only marked deleted,
+    // which hides them everywhere at once, and ConversationPurger deletes their messages in chunks.
     @Transactional
     public void deleteConversation(Long conversationId) {
         String uid = SecurityUtils.getCurrentFirebaseUid();
@@ -245,7 +542,9 @@ public class MessageService {
         User currentUser = userRepository.findByFirebaseUid(uid)
                 .orElseThrow(() -> new IllegalArgumentException("User profile not created"));
 
-        Conversation conversation = conversationRepository.findById(conversationId)
+        // Locked so a concurrent send can't add a message between the two deletes
+        Conversation conversation = conversationRepository.findByIdForUpdate(conversationId)
+                .filter(c -> c.getDeletedAt() == null)
                 .orElseThrow(() -> new IllegalArgumentException("Conversation not found"));
 
         // Check if user is part of this conversation
@@ -254,10 +553,18 @@ public class MessageService {
             throw new IllegalArgumentException("You don't have permission to delete this conversation");
         }
 
+        // The conversation's unread messages leave both participants' badges
+        badgeCounterService.invalidateAfterCommit(conversation.getUser1().getId(), conversation.getUser2().getId());
+
+        if (messageRepository.hasMoreMessagesThan(conversationId, softDeleteThreshold)) {
+            conversationRepository.softDelete(conversationId, LocalDateTime.now());
+            return;
+        }
+
         // Delete all messages in the conversation first
-        messageRepository.deleteByConversationId(conversationId);
+        messageRepository.deleteAllByConversationId(conversationId);
         
         // Delete the conversation
-        conversationRepository.delete(conversation);
+        conversationRepository.deleteByIdInBulk(conversationId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package com.campex.backend.service;
+
+import com.campex.backend.model.BroadcastNotification;
+import com.campex.backend.repository.BroadcastNotificationRepository;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.MulticastMessage;
+import com.google.firebase.messaging.SendResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends one notification to every user (except the author) without loading users as entities.
+ * <p>
+ * The notification is stored once, as a BroadcastNotification row written in the triggering transaction;
+ * users' feeds merge it in at read time (NotificationService.getFeed). Only the push fans out, as a chain of
+ * durable jobs (BroadcastPushJobHandler) queued in the same transaction: each job pushes to one keyset chunk
+ * of user ids, through FCM multicast in groups of 500 (the FCM limit), then queues the job for the next
+ * chunk. JobWorker queues the next chunk in the transaction that finishes the current one, so a crash or a
+ * lock-timeout re-run repeats at most that chunk's pushes and never forks the chain. A failed chunk is
+ * retried without repeating earlier ones. Tokens FCM reports as unregistered are cleared. Progress is exposed under
+ * campex.notifications.fanout.*.
+ */
+@Component
+@Slf4j
+public class NotificationFanoutService {
+
+    private static final int FCM_MULTICAST_LIMIT = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BroadcastNotificationRepository broadcastNotificationRepository;
+    private final BadgeCounterService badgeCounterService;
+    private final JobQueue jobQueue;
+    private final int chunkSize;
+
+    private final Counter started;
+    private final Counter recipients;
+    private final Counter pushesSent;
+    private final Counter pushesFailed;
+    private final Timer chunkDuration;
+
+    public NotificationFanoutService(JdbcTemplate jdbcTemplate,
+                                     BroadcastNotificationRepository broadcastNotificationRepository,
+                                     BadgeCounterService badgeCounterService,
+                                     JobQueue jobQueue,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.notifications.fanout.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.broadcastNotificationRepository = broadcastNotificationRepository;
+        this.badgeCounterService = badgeCounterService;
+        this.jobQueue = jobQueue;
+        this.chunkSize = chunkSize;
+
+        this.started = Counter.builder("campex.notifications.fanout.started")
+                .description("Broadcast fan-outs queued").register(meterRegistry);
+        this.recipients = Counter.builder("campex.notifications.fanout.recipients")
+                .description("Users walked by push fan-outs").register(meterRegistry);
+        this.pushesSent = Counter.builder("campex.notifications.fanout.pushes").tag("result", "success")
+                .description("Push messages accepted by FCM").register(meterRegistry);
+        this.pushesFailed = Counter.builder("campex.notifications.fanout.pushes").tag("result", "failure")
+                .description("Push messages rejected by FCM").register(meterRegistry);
+        this.chunkDuration = Timer.builder("campex.notifications.fanout.chunk.duration")
+                .description("Time to push one chunk of a fan-out").register(meterRegistry);
+    }
+
+    /**
+     * Store a notification for all users except senderId, and queue its push, in the current transaction
+     */
+    public void broadcast(Long senderId, String title, String body, String type) {
+        BroadcastNotification broadcast = broadcastNotificationRepository.save(BroadcastNotification.builder()
+                .senderId(senderId)
+                .title(title)
+                .body(body)
+                .type(type)
+                .build());
+        badgeCounterService.broadcastAddedAfterCommit(senderId);
+        enqueueChunk(broadcast.getId(), senderId, title, body, type, 0);
+        started.increment();
+    }
+
+    // Pushes to the users after afterUserId (one chunk) and queues the next chunk, if any
+    void pushChunk(Long broadcastId, Long excludeUserId, String title, String body, String type, long afterUserId) {
+        chunkDuration.record(() -> {
+            List<Recipient> chunk = jdbcTemplate.query(
+                    "SELECT id, fcm_token FROM users WHERE id > ? AND id <> ? ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Recipient(rs.getLong("id"), rs.getString("fcm_token")),
+                    afterUserId, excludeUserId != null ? excludeUserId : -1L, chunkSize);
+            recipients.increment(chunk.size());
+            push(chunk, title, body, type);
+            if (chunk.size() == chunkSize) {
+                enqueueChunk(broadcastId, excludeUserId, title, body, type, chunk.get(chunk.size() - 1).userId());
+            } else {
+                log.info("Notification fan-out {} ('{}') finished", broadcastId, title);
+            }
+        });
+    }
+
+    private void enqueueChunk(Long broadcastId, Long excludeUserId, String title, String body, String type,
+                              long afterUserId) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("broadcastId", broadcastId);
+        payload.put("excludeUserId", excludeUserId);
+        payload.put("title", title);
+        payload.put("body", body);
+        payload.put("type", type);
+        payload.put("afterUserId", afterUserId);
+        jobQueue.enqueue(BroadcastPushJobHandler.TYPE, payload);
+    }
+
+    private void push(List<Recipient> chunk, String title, String body, String type) {
+        List<Recipient> withToken = chunk.stream()
+                .filter(recipient -> recipient.fcmToken() != null && !recipient.fcmToken().isEmpty())
+                .toList();
+        for (int from = 0; from < withToken.size(); from += FCM_MULTICAST_LIMIT) {
+            List<Recipient> group = withToken.subList(from, Math.min(from + FCM_MULTICAST_LIMIT, withToken.size()));
+            try {
+                MulticastMessage message = MulticastMessage.builder()
+                        .addAllTokens(group.stream().map(Recipient::fcmToken).toList())
+                        .putData("title", title)
+                        .putData("body", body)
+                        .putData("type", type)
+                        .build();
+                BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(message);
+                pushesSent.increment(response.getSuccessCount());
+                pushesFailed.increment(response.getFailureCount());
+                clearUnregisteredTokens(group, response.getResponses());
+            } catch (Exception e) {
+                pushesFailed.increment(group.size());
+                log.error("Failed to send FCM multicast to {} tokens: {}", group.size(), e.getMessage());
+            }
+        }
+    }
+
+    // Responses are in token order; tokens of uninstalled apps would otherwise fail on every broadcast
+    private void clearUnregisteredTokens(List<Recipient> group, List<SendResponse> responses) {
+        List<Object[]> stale = new ArrayList<>();
+        for (int i = 0; i < responses.size(); i++) {
+            SendResponse response = responses.get(i);
+            if (!response.isSuccessful() && response.getException() != null
+                    && response.getException().getMessagingErrorCode() == MessagingErrorCode.UNREGISTERED) {
+                stale.add(new Object[]{group.get(i).userId(), group.get(i).fcmToken()});
+            }
+        }
+        if (!stale.isEmpty()) {
+            // Only if the token hasn't been replaced in the meantime
+            jdbcTemplate.batchUpdate("UPDATE users SET fcm_token = NULL WHERE id = ? AND fcm_token = ?", stale);
+        }
+    }
+
+    private record Recipient(long userId, String fcmToken) {
+    }
+}
@@ -1,55 +1,188 @@
 package com.campex.backend.service;
 
+import com.campex.backend.dto.response.CursorPageResponse;
+import com.campex.backend.dto.response.NotificationResponse;
 import com.campex.backend.model.Notification;
 import com.campex.backend.model.User;
+import com.campex.backend.repository.BroadcastNotificationRepository;
+import com.campex.backend.repository.BroadcastNotificationStateRepository;
 import com.campex.backend.repository.NotificationRepository;
 import com.campex.backend.repository.UserRepository;
 import com.campex.backend.security.SecurityUtils;
+import com.campex.backend.util.CursorUtils;
 import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    public static final String KIND_PERSONAL = "PERSONAL";
+    public static final String KIND_BROADCAST = "BROADCAST";
+
+    private static final int MAX_FEED_PAGE_SIZE = 100;
+
+    // Feed order: newest first; on equal timestamps broadcasts (source 1) before personal ones (source 0)
+    private static final Comparator<NotificationResponse> FEED_ORDER = Comparator
+            .comparing(NotificationResponse::getCreatedAt)
+            .thenComparing(NotificationService::source)
+            .thenComparing(NotificationResponse::getId)
+            .reversed();
+
     private final NotificationRepository notificationRepository;
+    private final BroadcastNotificationRepository broadcastNotificationRepository;
+    private final BroadcastNotificationStateRepository broadcastNotificationStateRepository;
     private final UserRepository userRepository;
+    private final JobQueue jobQueue;
+    private final BadgeCounterService badgeCounterService;
 
-    @Async
-    public void sendNotification(User user, String title, String body, String type) {
-        // Save to database
-        Notification notification = Notification.builder()
-                .user(user)
+    // Stores the notification in the current transaction and queues its push as a durable job, so the push
+    // survives restarts and is retried (PushJobHandler)
+    public void notifyDurably(Long userId, String title, String body, String type) {
+        notificationRepository.save(Notification.builder()
+                .user(userRepository.getReferenceById(userId))
                 .title(title)
                 .body(body)
                 .type(type)
                 .isRead(false)
                 .createdAt(LocalDateTime.now())
-                .build();
-        
-        notificationRepository.save(notification);
+                .build());
+        badgeCounterService.notificationsAddedAfterCommit(userId, 1);
+        jobQueue.enqueue(PushJobHandler.TYPE, Map.of("userId", userId, "title", title, "body", body, "type", type));
+    }
 
-        // Send Push Notification via Firebase
-        if (user.getFcmToken() != null && !user.getFcmToken().isEmpty()) {
+    // Sends one push, throwing on failures worth retrying. Users without a token, or whose app is
+    // uninstalled, are skipped.
+    public void push(Long userId, String title, String body, String type) throws FirebaseMessagingException {
+        String token = userRepository.findById(userId).map(User::getFcmToken).orElse(null);
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+        try {
+            FirebaseMessaging.getInstance().send(Message.builder()
+                    .setToken(token)
+                    .putData("title", title)
+                    .putData("body", body)
+                    .putData("type", type)
+                    .build());
+        } catch (FirebaseMessagingException e) {
+            if (e.getMessagingErrorCode() != MessagingErrorCode.UNREGISTERED) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * A page of the current user's feed: their own notifications and the broadcasts visible to them, merged
+     * newest first. Each source is read with its own keyset query (limit + 1 rows after the cursor) and the
+     * two sorted lists are merged here, so a broadcast costs one row however many users see it.
+     */
+    public CursorPageResponse<NotificationResponse> getFeed(String cursor, int size) {
+        Long userId = getCurrentUser().getId();
+
+        LocalDateTime cursorCreatedAt = null;
+        Integer cursorSource = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtils.decode(cursor, 3);
             try {
-                Message message = Message.builder()
-                        .setToken(user.getFcmToken())
-                        .putData("title", title)
-                        .putData("body", body)
-                        .putData("type", type)
-                        .build();
-
-                FirebaseMessaging.getInstance().send(message);
-            } catch (Exception e) {
-                System.err.println("Failed to send FCM notification: " + e.getMessage());
+                cursorCreatedAt = LocalDateTime.parse(parts[0]);
+                cursorSource = Integer.parseInt(parts[1]);
+                cursorId = Long.parseLong(parts[2]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
             }
         }
+
+        int limit = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        // One extra row tells whether another page exists
+        List<NotificationResponse> rows = merge(userId, cursorCreatedAt, cursorSource, cursorId, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<NotificationResponse> page = hasNext ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            NotificationResponse last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(last.getCreatedAt(), source(last), last.getId());
+        }
+
+        return CursorPageResponse.<NotificationResponse>builder()
+                .content(page)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(page.size())
+                .build();
+    }
+
+    // Offset pages of the merged feed for clients that don't send a cursor. Both sources are read from the
+    // start, so this is only suited to the first few pages.
+    public List<NotificationResponse> getFeedPage(int page, int size) {
+        Long userId = getCurrentUser().getId();
+        int limit = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        int offset = Math.max(0, page) * limit;
+        List<NotificationResponse> rows = merge(userId, null, null, null, offset + limit);
+        return offset >= rows.size() ? List.of() : rows.subList(offset, rows.size());
+    }
+
+    // The first `limit` feed entries after the cursor, from both sources
+    private List<NotificationResponse> merge(Long userId, LocalDateTime cursorCreatedAt, Integer cursorSource,
+                                             Long cursorId, int limit) {
+        List<NotificationResponse> personal = notificationRepository
+                .findPersonal(userId, cursorCreatedAt, cursorSource, cursorId, limit).stream()
+                .map(this::mapToResponse)
+                .toList();
+        List<NotificationResponse> broadcasts = broadcastNotificationRepository
+                .findVisibleTo(userId, cursorCreatedAt, cursorSource, cursorId, limit).stream()
+                .map(this::mapToResponse)
+                .toList();
+
+        List<NotificationResponse> merged = new ArrayList<>(Math.min(limit, personal.size() + broadcasts.size()));
+        int p = 0;
+        int b = 0;
+        while (merged.size() < limit && (p < personal.size() || b < broadcasts.size())) {
+            if (b >= broadcasts.size()
+                    || (p < personal.size() && FEED_ORDER.compare(personal.get(p), broadcasts.get(b)) <= 0)) {
+                merged.add(personal.get(p++));
+            } else {
+                merged.add(broadcasts.get(b++));
+            }
+        }
+        return merged;
+    }
+
+    @Transactional
+    public void markBroadcastAsRead(Long broadcastId) {
+        Long userId = getVisibleBroadcastUserId(broadcastId);
+        broadcastNotificationStateRepository.markRead(broadcastId, userId, LocalDateTime.now());
+        // Whether it was unread also depends on the read watermark, so the badge is recounted
+        badgeCounterService.invalidateAfterCommit(userId);
+    }
+
+    // Hides one broadcast from the current user's feed
+    @Transactional
+    public void dismissBroadcast(Long broadcastId) {
+        Long userId = getVisibleBroadcastUserId(broadcastId);
+        broadcastNotificationStateRepository.dismiss(broadcastId, userId, LocalDateTime.now());
+        badgeCounterService.invalidateAfterCommit(userId);
+    }
+
+    private Long getVisibleBroadcastUserId(Long broadcastId) {
+        Long userId = getCurrentUser().getId();
+        if (!broadcastNotificationRepository.isVisibleTo(broadcastId, userId)) {
+            throw new IllegalArgumentException("Notification not found");
+        }
+        return userId;
     }
 
     @Transactional
@@ -71,7 +204,9 @@ public class NotificationService {
         }
 
         // Use direct update query for immediate database persistence
-        notificationRepository.markAsReadById(notificationId);
+        if (notificationRepository.markAsReadById(notificationId) > 0) {
+            badgeCounterService.notificationsReadAfterCommit(user.getId(), 1);
+        }
     }
 
     @Transactional
@@ -86,6 +221,10 @@ public class NotificationService {
 
         // Use direct update query for immediate database persistence
         notificationRepository.markAllAsReadByUserId(user.getId());
+
+        // Broadcasts: one watermark instead of a state row per broadcast
+        user.setBroadcastsReadUpTo(broadcastNotificationRepository.findMaxId());
+        badgeCounterService.notificationsClearedAfterCommit(user.getId());
     }
 
     @Transactional
@@ -99,5 +238,49 @@ public class NotificationService {
                 .orElseThrow(() -> new IllegalArgumentException("User profile not created"));
 
         notificationRepository.deleteByUserId(user.getId());
+
+        // Broadcasts are shared: hide everything up to the newest one, whose state rows are then moot
+        user.setBroadcastsClearedUpTo(broadcastNotificationRepository.findMaxId());
+        broadcastNotificationStateRepository.deleteAllByUserId(user.getId());
+        badgeCounterService.notificationsClearedAfterCommit(user.getId());
+    }
+
+    // Position of the kind in the feed order (and cursors): broadcasts 1, personal 0
+    private static int source(NotificationResponse notification) {
+        return KIND_BROADCAST.equals(notification.getKind()) ? 1 : 0;
+    }
+
+    private User getCurrentUser() {
+        String uid = SecurityUtils.getCurrentFirebaseUid();
+        if (uid == null) {
+            throw new IllegalArgumentException("User not authenticated");
+        }
+        return userRepository.findByFirebaseUid(uid)
+                .orElseThrow(() -> new IllegalArgumentException("User profile not created. Please create your profile first."));
+    }
+
+    private NotificationResponse mapToResponse(Notification notification) {
+        return NotificationResponse.builder()
+                .id(notification.getId())
+                .type(notification.getType())
+                .title(notification.getTitle())
+                .body(notification.getBody())
+                .data(notification.getData())
+                .isRead(notification.isRead())
+                .kind(KIND_PERSONAL)
+                .createdAt(notification.getCreatedAt())
+                .build();
+    }
+
+    private NotificationResponse mapToResponse(BroadcastNotificationRepository.BroadcastRow row) {
+        return NotificationResponse.builder()
+                .id(row.getId())
+                .type(row.getType())
+                .title(row.getTitle())
+                .body(row.getBody())
+                .isRead(Boolean.TRUE.equals(row.getRead()))
+                .kind(KIND_BROADCAST)
+                .createdAt(row.getCreatedAt())
+                .build();
     }
 }
\ No newline at end of file
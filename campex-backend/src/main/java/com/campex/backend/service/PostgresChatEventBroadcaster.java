@@ -0,0 +1,146 @@
+package com.campex.backend.service;
+
+import com.campex.backend.dto.response.MessageResponse;
+import com.campex.backend.model.Message;
+import com.campex.backend.repository.MessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+/**
+ * Multi-instance broadcaster over Postgres LISTEN/NOTIFY (app.chat.broadcast=postgres).
+ * <p>
+ * pg_notify runs inside the sending transaction, so Postgres delivers the event to every listening instance
+ * exactly when the message commits, and never if it rolls back. Each instance keeps one dedicated listener
+ * connection outside the pool. Payloads over the NOTIFY size limit carry only the message id, and the
+ * receiving instances load the message themselves.
+ */
+@Component
+@ConditionalOnProperty(name = "app.chat.broadcast", havingValue = "postgres")
+@Slf4j
+public class PostgresChatEventBroadcaster implements ChatEventBroadcaster {
+
+    private static final String CHANNEL = "chat_events";
+    private static final int MAX_PAYLOAD_BYTES = 7900; // NOTIFY limit is 8000 bytes
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final MessageRepository messageRepository;
+    private final ChatStreamRegistry chatStreamRegistry;
+
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public PostgresChatEventBroadcaster(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                        ObjectMapper objectMapper, MessageRepository messageRepository,
+                                        ChatStreamRegistry chatStreamRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.messageRepository = messageRepository;
+        this.chatStreamRegistry = chatStreamRegistry;
+    }
+
+    @Override
+    public void publish(ChatEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+            if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                payload = objectMapper.writeValueAsString(new ChatEvent(event.recipientIds(),
+                        MessageResponse.builder().id(event.message().getId()).build()));
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize chat event", e);
+        }
+        // Joins the surrounding transaction: queued by Postgres and sent on commit
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, CHANNEL, payload);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        listener = new Thread(this::listen, "chat-events-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for chat events on channel {}", CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(10_000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                // Events sent while disconnected are missed; clients catch up through the message endpoints
+                log.error("Chat event listener disconnected, retrying in {} ms: {}", RECONNECT_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        try {
+            ChatEvent event = objectMapper.readValue(payload, ChatEvent.class);
+            if (event.message().getSenderId() == null) {
+                // Oversized message sent by reference
+                Message message = messageRepository.findById(event.message().getId()).orElse(null);
+                if (message == null) {
+                    return;
+                }
+                event = new ChatEvent(event.recipientIds(), MessageResponse.builder()
+                        .id(message.getId())
+                        .conversationId(message.getConversation().getId())
+                        .senderId(message.getSender().getId())
+                        .receiverId(message.getReceiver().getId())
+                        .content(message.getContent())
+                        .isRead(message.isRead())
+                        .createdAt(message.getCreatedAt())
+                        .build());
+            }
+            chatStreamRegistry.deliver(event);
+        } catch (Exception e) {
+            log.error("Failed to dispatch chat event: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.campex.backend.service;
+
+import com.campex.backend.model.Product;
+import com.campex.backend.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version of everything a feed page is rendered from, used to build feed ETags.
+ * <p>
+ * The version is a Postgres sequence, so every instance sees the same value. It is advanced after commit
+ * by every product write (as a ProductChangeListener) and by the other writes that change feed responses:
+ * saving/unsaving items and seller profile edits. Feed pages can also be served from per-instance caches
+ * that lag a write on another instance by up to their TTL, so the version carries a time bucket of
+ * app.feed-etag.bucket-ms as well: a client that cached such a page gets a fresh copy within two buckets.
+ */
+@Component
+@Slf4j
+public class ProductCatalogVersion implements ProductChangeListener {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long bucketMs;
+
+    public ProductCatalogVersion(JdbcTemplate jdbcTemplate,
+                                 @Value("${app.feed-etag.bucket-ms:${app.feed-cache.ttl-ms:30000}}") long bucketMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bucketMs = bucketMs;
+    }
+
+    /**
+     * The current version, or null if it can't be read (the caller then answers without an ETag)
+     */
+    public String current() {
+        try {
+            Long version = jdbcTemplate.queryForObject(
+                    "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM product_catalog_version_seq",
+                    Long.class);
+            return Long.toString(version, 36) + "." + Long.toString(System.currentTimeMillis() / bucketMs, 36);
+        } catch (DataAccessException e) {
+            log.warn("Failed to read the product catalog version, serving the feed without an ETag", e);
+            return null;
+        }
+    }
+
+    // Advance once the surrounding transaction (if any) has committed, so a reader that sees the new
+    // version also sees the write
+    public void bumpAfterCommit() {
+        TransactionUtils.afterCommit(this::bump);
+    }
+
+    @Override
+    public void onProductSaved(ProductSnapshot before, Product after) {
+        bump();
+    }
+
+    @Override
+    public void onProductDeleted(ProductSnapshot before) {
+        bump();
+    }
+
+    private void bump() {
+        try {
+            jdbcTemplate.queryForObject("SELECT nextval('product_catalog_version_seq')", Long.class);
+        } catch (DataAccessException e) {
+            // The write itself has committed; the time bucket still bounds how long old ETags match
+            log.error("Failed to advance the product catalog version", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.campex.backend.service;
+
+import com.campex.backend.model.Product;
+
+/**
+ * Implemented by in-memory read structures that must follow product writes.
+ * ProductService calls every listener bean after the write has committed.
+ */
+public interface ProductChangeListener {
+
+    /**
+     * A product was created or modified.
+     * @param before state before the change, or null for a newly created product
+     * @param after the saved product (seller is initialized)
+     */
+    void onProductSaved(ProductSnapshot before, Product after);
+
+    /**
+     * A product was deleted.
+     * @param before state of the product before it was deleted
+     */
+    void onProductDeleted(ProductSnapshot before);
+}
@@ -0,0 +1,109 @@
+package com.campex.backend.service;
+
+import com.campex.backend.model.Product;
+import com.campex.backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory facet counts (category x price type) for all ACTIVE products, i.e. the unfiltered feed.
+ * Loaded lazily with one aggregate query and then kept current with deltas from ProductService writes.
+ * The counts are reloaded once older than app.facet-cache.ttl-ms, which bounds drift from writes made
+ * through other instances.
+ */
+@Component
+public class ProductFacetCache implements ProductChangeListener {
+
+    static final List<String> PRICE_TYPES = List.of("FREE", "NEGOTIABLE", "FIXED");
+
+    private final ProductRepository productRepository;
+    private final long ttlMs;
+
+    private final Object lock = new Object();
+    private Map<String, long[]> activeCounts; // null until loaded
+    private long loadedAt;
+    private long generation;                  // bumped on every write, detects writes racing a load
+
+    public ProductFacetCache(ProductRepository productRepository,
+                             @Value("${app.facet-cache.ttl-ms:60000}") long ttlMs) {
+        this.productRepository = productRepository;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Counts per category for ACTIVE products, indexed like {@link #PRICE_TYPES}. Returns a copy.
+     */
+    public Map<String, long[]> getActiveCounts() {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (lock) {
+            if (activeCounts != null && now - loadedAt < ttlMs) {
+                return copy(activeCounts);
+            }
+            loadGeneration = generation;
+        }
+
+        Map<String, long[]> loaded = toCounts(productRepository.countFacets("ACTIVE", null, null, null, false, "", ""));
+
+        synchronized (lock) {
+            // If a write landed while we were querying we can't tell whether it is included, so don't keep it
+            if (generation == loadGeneration) {
+                activeCounts = loaded;
+                loadedAt = now;
+            }
+        }
+        return copy(loaded);
+    }
+
+    @Override
+    public void onProductSaved(ProductSnapshot before, Product after) {
+        ProductSnapshot current = ProductSnapshot.of(after);
+        synchronized (lock) {
+            generation++;
+            if (activeCounts == null) {
+                return;
+            }
+            if (before != null && before.isActive()) {
+                adjust(before, -1);
+            }
+            if (current.isActive()) {
+                adjust(current, 1);
+            }
+        }
+    }
+
+    @Override
+    public void onProductDeleted(ProductSnapshot before) {
+        synchronized (lock) {
+            generation++;
+            if (activeCounts != null && before.isActive()) {
+                adjust(before, -1);
+            }
+        }
+    }
+
+    static Map<String, long[]> toCounts(List<ProductRepository.FacetRow> rows) {
+        Map<String, long[]> counts = new HashMap<>();
+        for (ProductRepository.FacetRow row : rows) {
+            counts.put(row.getCategory(),
+                    new long[] { row.getFreeCount(), row.getNegotiableCount(), row.getFixedCount() });
+        }
+        return counts;
+    }
+
+    private void adjust(ProductSnapshot product, int delta) {
+        long[] cell = activeCounts.computeIfAbsent(product.getCategory(), c -> new long[PRICE_TYPES.size()]);
+        int index = PRICE_TYPES.indexOf(product.getPriceType());
+        cell[index] = Math.max(0, cell[index] + delta);
+    }
+
+    private static Map<String, long[]> copy(Map<String, long[]> counts) {
+        Map<String, long[]> copy = new HashMap<>();
+        counts.forEach((category, cell) -> copy.put(category, cell.clone()));
+        return copy;
+    }
+}
@@ -0,0 +1,128 @@
+package com.campex.backend.service;
+
+import com.campex.backend.util.SearchTermUtils;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Normalized product feed filters parsed from the raw GET /api/products query parameters.
+ */
+@Value
+public class ProductFilter {
+
+    List<String> categories;   // null = all categories
+    String status;
+    boolean filterByPrice;
+    boolean includeFree;
+    boolean includeNegotiable;
+    boolean includeFixed;
+    String search;             // trimmed, never null
+    String tsQuery;            // prefix tsquery for full-text search, null when there is nothing to search
+    BigDecimal minPrice;       // inclusive, null = no lower bound (free items count as price 0)
+    BigDecimal maxPrice;       // inclusive, null = no upper bound
+    String sort;               // newest, price_asc or price_desc
+
+    public static final String SORT_NEWEST = "newest";
+    public static final String SORT_PRICE_ASC = "price_asc";
+    public static final String SORT_PRICE_DESC = "price_desc";
+
+    public static ProductFilter parse(String category, String status, String priceType, String search,
+                                      BigDecimal minPrice, BigDecimal maxPrice, String sort) {
+        // Split comma-separated categories into list
+        List<String> categories = null;
+        if (category != null && !category.trim().isEmpty()) {
+            // Trim whitespace from each category
+            categories = Arrays.stream(category.split(","))
+                .map(String::trim)
+                .filter(c -> !c.isEmpty())
+                .toList();
+            if (categories.isEmpty()) {
+                categories = null;
+            }
+        }
+
+        // Split comma-separated price types into list (similar to categories)
+        boolean filterByPrice = false;
+        boolean includeFree = false;
+        boolean includeNegotiable = false;
+        boolean includeFixed = false;
+
+        if (priceType != null && !priceType.trim().isEmpty()) {
+            // Trim whitespace and convert to uppercase
+            List<String> priceTypesList = Arrays.stream(priceType.split(","))
+                .map(String::trim)
+                .map(String::toUpperCase)
+                .filter(p -> !p.isEmpty())
+                .toList();
+
+            if (!priceTypesList.isEmpty()) {
+                filterByPrice = true;
+                includeFree = priceTypesList.contains("FREE");
+                includeNegotiable = priceTypesList.contains("NEGOTIABLE");
+                includeFixed = priceTypesList.contains("FIXED");
+            }
+        }
+
+        // Default to ACTIVE status if not specified to show only active listings
+        String queryStatus = (status == null || status.isEmpty()) ? "ACTIVE" : status;
+
+        // Default search to empty string if null
+        String querySearch = (search == null) ? "" : search.trim();
+
+        if ((minPrice != null && minPrice.signum() < 0) || (maxPrice != null && maxPrice.signum() < 0)) {
+            throw new IllegalArgumentException("Price range cannot be negative");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+
+        String querySort = (sort == null || sort.isBlank()) ? SORT_NEWEST : sort.trim().toLowerCase();
+        if (!List.of(SORT_NEWEST, SORT_PRICE_ASC, SORT_PRICE_DESC).contains(querySort)) {
+            throw new IllegalArgumentException("Invalid sort, expected newest, price_asc or price_desc");
+        }
+
+        return new ProductFilter(categories, queryStatus, filterByPrice, includeFree, includeNegotiable,
+                includeFixed, querySearch, toPrefixTsQuery(querySearch), minPrice, maxPrice, querySort);
+    }
+
+    public boolean hasSearch() {
+        return tsQuery != null;
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    public boolean isPriceSort() {
+        return !SORT_NEWEST.equals(sort);
+    }
+
+    public boolean isPriceAscending() {
+        return SORT_PRICE_ASC.equals(sort);
+    }
+
+    // Native queries can't bind an empty IN list, so pass a placeholder guarded by hasCategories()
+    public boolean hasCategories() {
+        return categories != null;
+    }
+
+    public List<String> categoriesOrPlaceholder() {
+        return categories != null ? categories : List.of("");
+    }
+
+    // Builds a prefix tsquery ("word1:* & word2:*") from free text, or null if nothing searchable remains.
+    // Only letters and digits survive, so user input can never inject tsquery syntax. Also used by message search.
+    static String toPrefixTsQuery(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
+        }
+        String tsQuery = SearchTermUtils.tokenize(search).stream()
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+        return tsQuery.isEmpty() ? null : tsQuery;
+    }
+}
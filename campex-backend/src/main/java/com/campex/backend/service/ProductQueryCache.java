@@ -0,0 +1,181 @@
+package com.campex.backend.service;
+
+import com.campex.backend.model.Product;
+import com.campex.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded LRU cache of first feed pages, keyed by the normalized filter and shared by all users.
+ * <p>
+ * Entries hold ordered product ids plus per-seller match counts rather than rendered products, so
+ * per-viewer details (own-listing exclusion, isSaved) are applied after the lookup. Entries are dropped
+ * as soon as ProductService writes a product in a category they cover, and expire after
+ * app.feed-cache.ttl-ms, which bounds staleness for writes made through other instances.
+ */
+@Component
+public class ProductQueryCache implements ProductChangeListener {
+
+    private final ProductRepository productRepository;
+    private final int maxEntries;
+    private final long ttlMs;
+
+    private final Map<Key, Entry> entries;
+    private long generation; // bumped by every invalidation, stops stale results racing back in
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    public ProductQueryCache(ProductRepository productRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.feed-cache.max-entries:256}") int maxEntries,
+                             @Value("${app.feed-cache.ttl-ms:30000}") long ttlMs) {
+        this.productRepository = productRepository;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > ProductQueryCache.this.maxEntries;
+            }
+        };
+
+        this.hits = Counter.builder("campex.feed.cache.requests").tag("result", "hit")
+                .description("First-page feed lookups answered from the cache").register(meterRegistry);
+        this.misses = Counter.builder("campex.feed.cache.requests").tag("result", "miss")
+                .description("First-page feed lookups that ran the database query").register(meterRegistry);
+        this.invalidations = Counter.builder("campex.feed.cache.invalidations")
+                .description("Entries dropped because a product in their categories changed").register(meterRegistry);
+        Gauge.builder("campex.feed.cache.size", this, cache -> cache.size())
+                .description("Cached first-page feed entries").register(meterRegistry);
+    }
+
+    /**
+     * Product ids of the first page for this filter as seen by the given viewer, plus the viewer's total.
+     */
+    public FirstPage getFirstPage(ProductFilter filter, Long viewerId, int pageSize) {
+        Key key = Key.of(filter, pageSize);
+        long now = System.currentTimeMillis();
+        Entry entry;
+        long loadGeneration;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt >= ttlMs) {
+                entries.remove(key);
+                entry = null;
+            }
+            loadGeneration = generation;
+        }
+
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            entry = load(filter, pageSize, now);
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(key, entry);
+                }
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(pageSize);
+        for (int i = 0; i < entry.ids.size() && ids.size() < pageSize; i++) {
+            if (!Objects.equals(entry.sellerIds.get(i), viewerId)) {
+                ids.add(entry.ids.get(i));
+            }
+        }
+        long ownCount = viewerId != null ? entry.countBySeller.getOrDefault(viewerId, 0L) : 0L;
+        return new FirstPage(ids, entry.total - ownCount);
+    }
+
+    @Override
+    public void onProductSaved(ProductSnapshot before, Product after) {
+        invalidate(before != null ? before.getCategory() : null, after.getCategory());
+    }
+
+    @Override
+    public void onProductDeleted(ProductSnapshot before) {
+        invalidate(before.getCategory(), null);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void invalidate(String category, String otherCategory) {
+        generation++;
+        int before = entries.size();
+        entries.keySet().removeIf(key -> key.categories == null
+                || (category != null && key.categories.contains(category))
+                || (otherCategory != null && key.categories.contains(otherCategory)));
+        invalidations.increment(before - entries.size());
+    }
+
+    private Entry load(ProductFilter filter, int pageSize, long loadedAt) {
+        String tsQuery = filter.hasSearch() ? filter.getTsQuery() : "";
+        List<ProductRepository.SellerCountRow> sellerCounts = productRepository.countSharedFeedBySeller(
+                filter.hasCategories(), filter.categoriesOrPlaceholder(), filter.getStatus(),
+                filter.isFilterByPrice(), filter.isIncludeFree(), filter.isIncludeNegotiable(), filter.isIncludeFixed(),
+                filter.hasSearch(), tsQuery, filter.getSearch());
+
+        Map<Long, Long> countBySeller = new HashMap<>();
+        long total = 0;
+        long largestSeller = 0;
+        for (ProductRepository.SellerCountRow row : sellerCounts) {
+            countBySeller.put(row.getSellerId(), row.getCount());
+            total += row.getCount();
+            largestSeller = Math.max(largestSeller, row.getCount());
+        }
+
+        // Enough ids that removing any single viewer's own listings still leaves a full page
+        int limit = (int) (pageSize + Math.min(pageSize, largestSeller));
+        List<Long> ids = new ArrayList<>(limit);
+        List<Long> sellerIds = new ArrayList<>(limit);
+        if (total > 0) {
+            productRepository.findSharedFeedIds(
+                    filter.hasCategories(), filter.categoriesOrPlaceholder(), filter.getStatus(),
+                    filter.isFilterByPrice(), filter.isIncludeFree(), filter.isIncludeNegotiable(),
+                    filter.isIncludeFixed(), filter.hasSearch(), tsQuery, filter.getSearch(), limit)
+                    .forEach(row -> {
+                        ids.add(row.getId());
+                        sellerIds.add(row.getSellerId());
+                    });
+        }
+        return new Entry(ids, sellerIds, countBySeller, total, loadedAt);
+    }
+
+    public record FirstPage(List<Long> productIds, long total) {
+    }
+
+    private record Entry(List<Long> ids, List<Long> sellerIds, Map<Long, Long> countBySeller, long total,
+                         long loadedAt) {
+    }
+
+    // Normalized so equivalent requests share an entry: categories sorted, price types upper-cased
+    // (via ProductFilter flags), search lower-cased
+    private record Key(List<String> categories, boolean filterByPrice, boolean includeFree,
+                       boolean includeNegotiable, boolean includeFixed, String status, String search,
+                       int pageSize) {
+
+        static Key of(ProductFilter filter, int pageSize) {
+            List<String> categories = filter.hasCategories()
+                    ? filter.getCategories().stream().distinct().sorted().toList()
+                    : null;
+            return new Key(categories, filter.isFilterByPrice(), filter.isIncludeFree(),
+                    filter.isIncludeNegotiable(), filter.isIncludeFixed(), filter.getStatus(),
+                    filter.hasSearch() ? filter.getSearch().toLowerCase() : "", pageSize);
+        }
+    }
+}
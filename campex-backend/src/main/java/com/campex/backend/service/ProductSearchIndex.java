@@ -0,0 +1,270 @@
+package com.campex.backend.service;
+
+import com.campex.backend.model.Product;
+import com.campex.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional in-JVM index of ACTIVE listings for browsing the product feed (app.search.in-memory.enabled=true).
+ * <p>
+ * Only ids and the columns the feed filters on are kept: product ids are bit positions in per-category and
+ * per-price-type bitsets, plus a sorted id list per seller for the own-listing exclusion. Ids are assigned
+ * in insert order, so walking the bits downwards yields the feed's newest-first order without sorting
+ * (listings created in the same instant may tie differently than created_at, id does in the database).
+ * A query is a handful of bitset ANDs and returns one page of ids and the total; the caller loads the
+ * listings by id. Searches, other statuses and price filters/sorts are not served here: they go to the
+ * database, so ranking and typo tolerance are the same whether or not the index is enabled.
+ * <p>
+ * Rebuilt from the database at startup and every app.search.in-memory.refresh-ms, and kept current by
+ * ProductService writes in between.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.in-memory.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex implements ProductChangeListener {
+
+    private final ProductRepository productRepository;
+
+    private final RebuildableIndex<Segment> index = new RebuildableIndex<>(new Segment());
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether the index can answer this feed query with the same results as the database
+     */
+    public boolean supports(ProductFilter filter) {
+        return ready && "ACTIVE".equals(filter.getStatus()) && !filter.hasSearch()
+                && !filter.hasPriceRange() && !filter.isPriceSort();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.search.in-memory.refresh-ms:300000}",
+            initialDelayString = "${app.search.in-memory.refresh-ms:300000}")
+    public void rebuild() {
+        index.startRebuild();
+        long start = System.currentTimeMillis();
+        Segment fresh = new Segment();
+        try {
+            productRepository.findIndexSources("ACTIVE").forEach(row -> fresh.upsert(new IndexedProduct(
+                    ordinal(row.getId()), row.getSellerId(), row.getCategory(),
+                    priceTypeIndex(ProductSnapshot.priceTypeOf(row.getIsFree(), row.getIsNegotiable())))));
+        } catch (Exception e) {
+            log.error("Failed to build in-memory product index, feed queries stay on the database", e);
+            index.abortRebuild();
+            return;
+        }
+
+        int products = fresh.size();
+        Segment previous = index.finishRebuild(fresh);
+        ready = true;
+        log.info("In-memory product index built: {} active products in {} ms (replaced {})",
+                products, System.currentTimeMillis() - start, previous.size());
+    }
+
+    /**
+     * One page of a feed query, newest first. Only call for filters the index {@link #supports}.
+     */
+    public IdPage search(ProductFilter filter, Long excludeSellerId, Pageable pageable) {
+        return index.read(segment -> segment.search(filter, excludeSellerId, pageable));
+    }
+
+    @Override
+    public void onProductSaved(ProductSnapshot before, Product after) {
+        ProductSnapshot current = ProductSnapshot.of(after);
+        if (current.getId() > Integer.MAX_VALUE) {
+            outgrown();
+            return;
+        }
+        IndexedProduct product = new IndexedProduct((int) (long) current.getId(), current.getSellerId(),
+                current.getCategory(), priceTypeIndex(current.getPriceType()));
+        boolean active = current.isActive();
+        index.write(segment -> {
+            segment.remove(product.id());
+            if (active) {
+                segment.upsert(product);
+            }
+        });
+    }
+
+    @Override
+    public void onProductDeleted(ProductSnapshot before) {
+        if (before.getId() <= Integer.MAX_VALUE) {
+            index.write(segment -> segment.remove((int) (long) before.getId()));
+        }
+    }
+
+    // Product ids are bit positions; past the int range the index can't hold them and the feed uses the database
+    private static int ordinal(Long id) {
+        return Math.toIntExact(id);
+    }
+
+    private void outgrown() {
+        if (ready) {
+            log.error("Product ids exceed the in-memory index range, feed queries go to the database");
+            ready = false;
+        }
+    }
+
+    private static int priceTypeIndex(String priceType) {
+        return ProductFacetCache.PRICE_TYPES.indexOf(priceType);
+    }
+
+    public record IdPage(List<Long> ids, long total) {
+    }
+
+    // The filter columns of one listing, kept so a later write can clear its old bits
+    private record IndexedProduct(int id, Long sellerId, String category, int priceTypeIndex) {
+    }
+
+    /**
+     * The index data. Only touched through the RebuildableIndex lock.
+     */
+    private static class Segment {
+
+        final Map<Integer, IndexedProduct> products = new HashMap<>();
+        final BitSet active = new BitSet();
+        final Map<String, BitSet> byCategory = new HashMap<>();
+        final BitSet[] byPriceType = { new BitSet(), new BitSet(), new BitSet() };
+        final Map<Long, IntPostings> bySeller = new HashMap<>();
+
+        int size() {
+            return products.size();
+        }
+
+        void upsert(IndexedProduct product) {
+            remove(product.id());
+            products.put(product.id(), product);
+            active.set(product.id());
+            byCategory.computeIfAbsent(product.category(), c -> new BitSet()).set(product.id());
+            if (product.priceTypeIndex() >= 0) {
+                byPriceType[product.priceTypeIndex()].set(product.id());
+            }
+            bySeller.computeIfAbsent(product.sellerId(), s -> new IntPostings()).add(product.id());
+        }
+
+        void remove(int id) {
+            IndexedProduct product = products.remove(id);
+            if (product == null) {
+                return;
+            }
+            active.clear(id);
+            BitSet category = byCategory.get(product.category());
+            if (category != null) {
+                category.clear(id);
+                if (category.isEmpty()) {
+                    byCategory.remove(product.category());
+                }
+            }
+            if (product.priceTypeIndex() >= 0) {
+                byPriceType[product.priceTypeIndex()].clear(id);
+            }
+            IntPostings sellerProducts = bySeller.get(product.sellerId());
+            if (sellerProducts != null && sellerProducts.remove(id) && sellerProducts.size() == 0) {
+                bySeller.remove(product.sellerId());
+            }
+        }
+
+        IdPage search(ProductFilter filter, Long excludeSellerId, Pageable pageable) {
+            BitSet matches = (BitSet) active.clone();
+
+            if (filter.hasCategories()) {
+                BitSet categories = new BitSet();
+                for (String category : filter.getCategories()) {
+                    BitSet set = byCategory.get(category);
+                    if (set != null) {
+                        categories.or(set);
+                    }
+                }
+                matches.and(categories);
+            }
+
+            if (filter.isFilterByPrice()) {
+                BitSet priceTypes = new BitSet();
+                if (filter.isIncludeFree()) priceTypes.or(byPriceType[0]);
+                if (filter.isIncludeNegotiable()) priceTypes.or(byPriceType[1]);
+                if (filter.isIncludeFixed()) priceTypes.or(byPriceType[2]);
+                matches.and(priceTypes);
+            }
+
+            IntPostings own = excludeSellerId != null ? bySeller.get(excludeSellerId) : null;
+            if (own != null) {
+                own.clearFrom(matches);
+            }
+
+            long total = matches.cardinality();
+            long skip = pageable.getOffset();
+            List<Long> ids = new ArrayList<>(pageable.getPageSize());
+            for (int id = matches.length() - 1;
+                 id >= 0 && ids.size() < pageable.getPageSize();
+                 id = matches.previousSetBit(id - 1)) {
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                ids.add((long) id);
+            }
+            return new IdPage(ids, total);
+        }
+    }
+
+    /**
+     * Sorted, growable int array of product ids
+     */
+    private static class IntPostings {
+
+        private int[] values = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = value;
+            size++;
+        }
+
+        boolean remove(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        void clearFrom(BitSet set) {
+            for (int i = 0; i < size; i++) {
+                set.clear(values[i]);
+            }
+        }
+    }
+}
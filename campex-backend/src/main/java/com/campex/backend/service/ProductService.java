@@ -1,33 +1,62 @@
 package com.campex.backend.service;
-import java.util.List;
+import com.campex.backend.dto.projection.ProductListingView;
 import com.campex.backend.dto.request.CreateProductRequest;
 import com.campex.backend.dto.request.UpdateProductRequest;
+import com.campex.backend.dto.response.CursorPageResponse;
+import com.campex.backend.dto.response.ProductFacetsResponse;
 import com.campex.backend.dto.response.ProductResponse;
+import com.campex.backend.dto.response.SuggestionResponse;
 import com.campex.backend.dto.response.UserResponse;
 import com.campex.backend.model.Product;
 import com.campex.backend.model.User;
 import com.campex.backend.repository.ProductRepository;
 import com.campex.backend.repository.SavedItemRepository;
 import com.campex.backend.repository.UserRepository;
+import com.campex.backend.util.CursorUtils;
+import com.campex.backend.util.HashUtils;
+import com.campex.backend.util.TransactionUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final SavedItemRepository savedItemRepository;
+    private final ProductFacetCache productFacetCache;
+    private final ProductQueryCache productQueryCache;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final ProductCatalogVersion productCatalogVersion;
+    private final List<ProductChangeListener> changeListeners;
+    private final Optional<ProductSearchIndex> searchIndex;
 
     public ProductResponse createProduct(CreateProductRequest request) {
         String uid = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -52,81 +81,195 @@ public class ProductService {
                 .build();
 
         Product savedProduct = productRepository.save(product);
-        return mapToResponse(savedProduct, seller.getId());
+        publishSaved(null, savedProduct);
+        return mapToResponse(savedProduct, false);
     }
 
     public Page<ProductResponse> getAllProducts(
-            String category, String status, String priceType, String search, Pageable pageable) {
-        
-        // Split comma-separated categories into list
-        List<String> categories = null;
-        if (category != null && !category.trim().isEmpty()) {
-            categories = Arrays.asList(category.split(","));
-            // Trim whitespace from each category
-            categories = categories.stream()
-                .map(String::trim)
-                .filter(c -> !c.isEmpty())
-                .toList();
-            if (categories.isEmpty()) {
-                categories = null;
+            String category, String status, String priceType, String search,
+            BigDecimal minPrice, BigDecimal maxPrice, String sort, Pageable pageable) {
+        ProductFilter filter = ProductFilter.parse(category, status, priceType, search, minPrice, maxPrice, sort);
+        Long currentUserId = getCurrentUserId();
+
+        // The in-memory index (when enabled) answers browsing of ACTIVE listings without the filter and count
+        // queries; only the page's listings are loaded, by id. Searches and price queries skip it.
+        if (searchIndex.isPresent() && searchIndex.get().supports(filter)) {
+            ProductSearchIndex.IdPage page = searchIndex.get().search(filter, currentUserId, pageable);
+            return new PageImpl<>(toResponses(currentUserId, findListingsInOrder(page.ids())), pageable, page.total());
+        }
+        boolean plainFeed = !filter.isPriceSort() && !filter.hasPriceRange();
+
+        // First pages are shared across users: the cache holds ids, the viewer's own listings and saved
+        // flags are applied per request
+        if (plainFeed && pageable.getPageNumber() == 0) {
+            ProductQueryCache.FirstPage firstPage =
+                    productQueryCache.getFirstPage(filter, currentUserId, pageable.getPageSize());
+            List<ProductListingView> content = findListingsInOrder(firstPage.productIds());
+            return new PageImpl<>(toResponses(currentUserId, content), pageable, firstPage.total());
+        }
+
+        // Exclude current user's own items from search/filter results
+        Page<ProductListingView> products;
+        if (filter.hasSearch()) {
+            // Full-text search orders by relevance (or price) itself, so the page request must be unsorted
+            Page<Long> ids = productRepository.searchProductIdsFullText(
+                    filter.hasCategories(), filter.categoriesOrPlaceholder(), filter.getStatus(),
+                    filter.isFilterByPrice(), filter.isIncludeFree(), filter.isIncludeNegotiable(),
+                    filter.isIncludeFixed(), currentUserId, filter.getTsQuery(), filter.getSearch(),
+                    filter.getMinPrice(), filter.getMaxPrice(), filter.getSort(),
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+            products = new PageImpl<>(findListingsInOrder(ids.getContent()), pageable, ids.getTotalElements());
+        } else {
+            Pageable sorted = pageable;
+            if (filter.isPriceSort()) {
+                // Same (COALESCE(price, 0), id) ordering as the price expression indexes
+                Sort.Direction direction = filter.isPriceAscending() ? Sort.Direction.ASC : Sort.Direction.DESC;
+                sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                        JpaSort.unsafe(direction, "COALESCE(p.price, 0)").and(Sort.by(direction, "id")));
             }
+            products = productRepository.filterProductListings(
+                    filter.getCategories(), filter.getStatus(), filter.isFilterByPrice(),
+                    filter.isIncludeFree(), filter.isIncludeNegotiable(), filter.isIncludeFixed(),
+                    currentUserId, filter.getMinPrice(), filter.getMaxPrice(), sorted);
         }
-        
-        // Split comma-separated price types into list (similar to categories)
-        List<String> priceTypesList = null;
-        boolean filterByPrice = false;
-        boolean includeFree = false;
-        boolean includeNegotiable = false;
-        boolean includeFixed = false;
-
-        if (priceType != null && !priceType.trim().isEmpty()) {
-            priceTypesList = Arrays.asList(priceType.split(","));
-            // Trim whitespace and convert to uppercase
-            priceTypesList = priceTypesList.stream()
-                .map(String::trim)
-                .map(String::toUpperCase)
-                .filter(p -> !p.isEmpty())
-                .toList();
-            
-            if (!priceTypesList.isEmpty()) {
-                filterByPrice = true;
-                includeFree = priceTypesList.contains("FREE");
-                includeNegotiable = priceTypesList.contains("NEGOTIABLE");
-                includeFixed = priceTypesList.contains("FIXED");
+
+        return new PageImpl<>(toResponses(currentUserId, products.getContent()), pageable,
+                products.getTotalElements());
+    }
+
+    // Keyset (cursor) pagination of the feed, newest first or by price. No OFFSET scan and no COUNT query,
+    // so every page costs the same no matter how deep the client scrolls.
+    // Newest cursors are (createdAt, id); price cursors are (sort, price, id) so they can't be mixed up.
+    public CursorPageResponse<ProductResponse> getProductsByCursor(
+            String category, String status, String priceType, String search,
+            BigDecimal minPrice, BigDecimal maxPrice, String sort, String cursor, int size) {
+        ProductFilter filter = ProductFilter.parse(category, status, priceType, search, minPrice, maxPrice, sort);
+        Long currentUserId = getCurrentUserId();
+        boolean hasCursor = cursor != null && !cursor.isBlank();
+
+        Pageable limit = PageRequest.of(0, Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE)));
+        List<ProductListingView> content;
+        boolean hasNext;
+        if (filter.isPriceSort()) {
+            BigDecimal cursorPrice = null;
+            Long cursorId = null;
+            if (hasCursor) {
+                String[] parts = CursorUtils.decode(cursor, 3);
+                try {
+                    if (!filter.getSort().equals(parts[0])) {
+                        throw new IllegalArgumentException("Invalid cursor");
+                    }
+                    cursorPrice = new BigDecimal(parts[1]);
+                    cursorId = Long.parseLong(parts[2]);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+            }
+
+            String tsQuery = filter.hasSearch() ? filter.getTsQuery() : "";
+            Slice<Long> ids = filter.isPriceAscending()
+                    ? productRepository.findIdsByPriceAscAfter(
+                            filter.hasCategories(), filter.categoriesOrPlaceholder(), filter.getStatus(),
+                            filter.isFilterByPrice(), filter.isIncludeFree(), filter.isIncludeNegotiable(),
+                            filter.isIncludeFixed(), currentUserId, filter.getMinPrice(), filter.getMaxPrice(),
+                            filter.hasSearch(), tsQuery, filter.getSearch(), cursorPrice, cursorId, limit)
+                    : productRepository.findIdsByPriceDescAfter(
+                            filter.hasCategories(), filter.categoriesOrPlaceholder(), filter.getStatus(),
+                            filter.isFilterByPrice(), filter.isIncludeFree(), filter.isIncludeNegotiable(),
+                            filter.isIncludeFixed(), currentUserId, filter.getMinPrice(), filter.getMaxPrice(),
+                            filter.hasSearch(), tsQuery, filter.getSearch(), cursorPrice, cursorId, limit);
+            content = findListingsInOrder(ids.getContent());
+            hasNext = ids.hasNext();
+        } else {
+            LocalDateTime cursorCreatedAt = null;
+            Long cursorId = null;
+            if (hasCursor) {
+                String[] parts = CursorUtils.decode(cursor, 2);
+                try {
+                    cursorCreatedAt = LocalDateTime.parse(parts[0]);
+                    cursorId = Long.parseLong(parts[1]);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+            }
+
+            if (filter.hasSearch()) {
+                Slice<Long> ids = productRepository.searchProductIdsFullTextAfter(
+                        filter.hasCategories(), filter.categoriesOrPlaceholder(), filter.getStatus(),
+                        filter.isFilterByPrice(), filter.isIncludeFree(), filter.isIncludeNegotiable(),
+                        filter.isIncludeFixed(), currentUserId, filter.getTsQuery(), filter.getSearch(),
+                        filter.getMinPrice(), filter.getMaxPrice(), cursorCreatedAt, cursorId, limit);
+                content = findListingsInOrder(ids.getContent());
+                hasNext = ids.hasNext();
+            } else {
+                Slice<ProductListingView> products = productRepository.filterProductListingsAfter(
+                        filter.getCategories(), filter.getStatus(), filter.isFilterByPrice(),
+                        filter.isIncludeFree(), filter.isIncludeNegotiable(), filter.isIncludeFixed(),
+                        currentUserId, filter.getMinPrice(), filter.getMaxPrice(), cursorCreatedAt, cursorId, limit);
+                content = products.getContent();
+                hasNext = products.hasNext();
             }
         }
 
-        // Default to ACTIVE status if not specified to show only active listings
-        String queryStatus = (status == null || status.isEmpty()) ? "ACTIVE" : status;
-        
-        // Default search to empty string if null
-        String querySearch = (search == null) ? "" : search;
+        String nextCursor = null;
+        if (hasNext && !content.isEmpty()) {
+            ProductListingView last = content.get(content.size() - 1);
+            nextCursor = filter.isPriceSort()
+                    ? CursorUtils.encode(filter.getSort(),
+                            (last.getPrice() != null ? last.getPrice() : BigDecimal.ZERO).toPlainString(), last.getId())
+                    : CursorUtils.encode(last.getCreatedAt(), last.getId());
+        }
 
-        String uid = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByFirebaseUid(uid).orElse(null);
-        Long currentUserId = currentUser != null ? currentUser.getId() : null;
+        return CursorPageResponse.<ProductResponse>builder()
+                .content(toResponses(currentUserId, content))
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .size(content.size())
+                .build();
+    }
 
-        // Exclude current user's own items from search/filter results
-        Page<Product> products = productRepository.searchProducts(
-                categories, queryStatus, filterByPrice, includeFree, includeNegotiable, includeFixed, 
-                currentUserId, querySearch, pageable);
+    // Strong ETag for a feed page: the shared catalog version plus a digest of everything that selects or
+    // personalizes the page. Costs one sequence read, so a matching If-None-Match skips the feed query.
+    // Null when the version can't be read.
+    public String getFeedETag(String category, String status, String priceType, String search,
+                              BigDecimal minPrice, BigDecimal maxPrice, String sort, Pageable pageable) {
+        String version = productCatalogVersion.current();
+        if (version == null) {
+            return null;
+        }
+        String uid = SecurityContextHolder.getContext().getAuthentication().getName();
+        // Unit separators keep adjacent values from running together ("ab" + "c" vs "a" + "bc")
+        String request = Stream.of(category, status, priceType, search, minPrice, maxPrice, sort,
+                        pageable.getPageNumber(), pageable.getPageSize(), uid)
+                .map(value -> value == null ? "" : value.toString())
+                .collect(Collectors.joining("\u001f"));
+        return "\"feed-" + version + "-" + HashUtils.sha256Hex(request) + "\"";
+    }
 
-        return products.map(p -> mapToResponse(p, currentUserId));
+    // Strong ETag for a product detail response from one narrow query (no images, description or entity
+    // hydration). Null when the product doesn't exist, so the normal path reports the error.
+    public String getProductETag(Long id) {
+        String uid = SecurityContextHolder.getContext().getAuthentication().getName();
+        return productRepository.findVersionById(id, uid)
+                .map(row -> "\"product-" + row.getId() + "-"
+                        + versionOf(row.getUpdatedAt() != null ? row.getUpdatedAt() : row.getCreatedAt()) + "-"
+                        + versionOf(row.getSellerUpdatedAt()) + "-"
+                        + (row.getSavedCount() > 0 ? "s" : "n") + "\"")
+                .orElse(null);
     }
 
     public ProductResponse getProductById(Long id) {
         Product product = getProductEntity(id);
-        
-        String uid = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByFirebaseUid(uid).orElse(null);
-        Long currentUserId = currentUser != null ? currentUser.getId() : null;
-        
-        return mapToResponse(product, currentUserId);
+        Long currentUserId = getCurrentUserId();
+        boolean isSaved = currentUserId != null &&
+                savedItemRepository.existsByUserIdAndProductId(currentUserId, product.getId());
+        return mapToResponse(product, isSaved);
     }
 
     public ProductResponse updateProduct(Long id, UpdateProductRequest request) {
         Product product = getProductEntity(id);
         validateOwnership(product);
+        ProductSnapshot before = ProductSnapshot.of(product);
 
         if (request.getTitle() != null) product.setTitle(request.getTitle());
         if (request.getDescription() != null) product.setDescription(request.getDescription());
@@ -137,33 +280,139 @@ public class ProductService {
         if (request.getIsNegotiable() != null) product.setNegotiable(request.getIsNegotiable());
         if (request.getIsAvailableForRent() != null) product.setAvailableForRent(request.getIsAvailableForRent());
 
-        return mapToResponse(productRepository.save(product), product.getSeller().getId());
+        Product updatedProduct = productRepository.save(product);
+        publishSaved(before, updatedProduct);
+        return mapToResponse(updatedProduct,
+                savedItemRepository.existsByUserIdAndProductId(product.getSeller().getId(), product.getId()));
     }
 
     public void deleteProduct(Long id) {
         Product product = getProductEntity(id);
         validateOwnership(product);
+        ProductSnapshot before = ProductSnapshot.of(product);
         productRepository.delete(product);
+        publishDeleted(List.of(before));
     }
 
     public ProductResponse markAsSold(Long id) {
         Product product = getProductEntity(id);
         validateOwnership(product);
+        ProductSnapshot before = ProductSnapshot.of(product);
         product.setStatus("SOLD");
         Product updatedProduct = productRepository.save(product);
-        return mapToResponse(updatedProduct, product.getSeller().getId());
+        publishSaved(before, updatedProduct);
+        return mapToResponse(updatedProduct,
+                savedItemRepository.existsByUserIdAndProductId(product.getSeller().getId(), product.getId()));
     }
 
     public ProductResponse markAsActive(Long id) {
         Product product = getProductEntity(id);
         validateOwnership(product);
+        ProductSnapshot before = ProductSnapshot.of(product);
         product.setStatus("ACTIVE");
         Product updatedProduct = productRepository.save(product);
-        return mapToResponse(updatedProduct, product.getSeller().getId());
+        publishSaved(before, updatedProduct);
+        return mapToResponse(updatedProduct,
+                savedItemRepository.existsByUserIdAndProductId(product.getSeller().getId(), product.getId()));
+    }
+
+    // Facet counts for the sidebar. Each facet ignores its own selection (so every option shows how many
+    // results picking it would give) but respects all other filters, including the own-listing exclusion.
+    public ProductFacetsResponse getFacets(String category, String status, String priceType, String search,
+                                           BigDecimal minPrice, BigDecimal maxPrice) {
+        ProductFilter filter = ProductFilter.parse(category, status, priceType, search, minPrice, maxPrice, null);
+        Long currentUserId = getCurrentUserId();
+
+        Map<String, long[]> counts;
+        if (!filter.hasSearch() && !filter.hasPriceRange() && "ACTIVE".equals(filter.getStatus())) {
+            // Unfiltered feed: serve from the in-memory cache and subtract the caller's own listings
+            Map<String, long[]> activeCounts = productFacetCache.getActiveCounts();
+            if (currentUserId != null) {
+                ProductFacetCache.toCounts(productRepository.countFacetsForSeller(currentUserId, "ACTIVE"))
+                        .forEach((cat, own) -> {
+                            long[] cell = activeCounts.get(cat);
+                            if (cell != null) {
+                                for (int i = 0; i < cell.length; i++) {
+                                    cell[i] = Math.max(0, cell[i] - own[i]);
+                                }
+                            }
+                        });
+            }
+            counts = activeCounts;
+        } else {
+            counts = ProductFacetCache.toCounts(productRepository.countFacets(
+                    filter.getStatus(), currentUserId, filter.getMinPrice(), filter.getMaxPrice(), filter.hasSearch(),
+                    filter.hasSearch() ? filter.getTsQuery() : "", filter.getSearch()));
+        }
+
+        List<String> priceTypes = ProductFacetCache.PRICE_TYPES;
+        boolean[] selectedPriceTypes = {
+                !filter.isFilterByPrice() || filter.isIncludeFree(),
+                !filter.isFilterByPrice() || filter.isIncludeNegotiable(),
+                !filter.isFilterByPrice() || filter.isIncludeFixed()
+        };
+
+        Map<String, Long> categoryFacets = new TreeMap<>();
+        long[] priceTypeTotals = new long[priceTypes.size()];
+        long total = 0;
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            boolean categorySelected = !filter.hasCategories() || filter.getCategories().contains(entry.getKey());
+            long[] cell = entry.getValue();
+            long categoryCount = 0;
+            for (int i = 0; i < cell.length; i++) {
+                if (selectedPriceTypes[i]) {
+                    categoryCount += cell[i];
+                }
+                if (categorySelected) {
+                    priceTypeTotals[i] += cell[i];
+                }
+            }
+            categoryFacets.put(entry.getKey(), categoryCount);
+            if (categorySelected) {
+                total += categoryCount;
+            }
+        }
+
+        Map<String, Long> priceTypeFacets = new LinkedHashMap<>();
+        for (int i = 0; i < priceTypes.size(); i++) {
+            priceTypeFacets.put(priceTypes.get(i), priceTypeTotals[i]);
+        }
+
+        return ProductFacetsResponse.builder()
+                .categories(categoryFacets)
+                .priceTypes(priceTypeFacets)
+                .total(total)
+                .build();
+    }
+
+    // Typeahead completions for the search box, answered from memory
+    public List<SuggestionResponse> getSuggestions(String query, int limit) {
+        return productSuggestionIndex.suggest(query, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    // Snapshots of products removed outside this service (e.g. account deletion) so listeners stay current
+    public void publishDeleted(List<ProductSnapshot> deleted) {
+        TransactionUtils.afterCommit(() -> deleted.forEach(
+                snapshot -> changeListeners.forEach(listener -> listener.onProductDeleted(snapshot))));
+    }
+
+    private void publishSaved(ProductSnapshot before, Product after) {
+        TransactionUtils.afterCommit(() -> changeListeners.forEach(listener -> listener.onProductSaved(before, after)));
+    }
+
+    private static String versionOf(LocalDateTime timestamp) {
+        return timestamp == null ? "0" : Long.toString(timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L
+                + timestamp.getNano(), 36);
+    }
+
+    private Long getCurrentUserId() {
+        String uid = SecurityContextHolder.getContext().getAuthentication().getName();
+        User currentUser = userRepository.findByFirebaseUid(uid).orElse(null);
+        return currentUser != null ? currentUser.getId() : null;
     }
 
     private Product getProductEntity(Long id) {
-        return productRepository.findById(id)
+        return productRepository.findWithSellerById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
     }
 
@@ -174,10 +423,26 @@ public class ProductService {
         }
     }
 
-    private ProductResponse mapToResponse(Product product, Long currentUserId) {
-        boolean isSaved = currentUserId != null && 
-                savedItemRepository.existsByUserIdAndProductId(currentUserId, product.getId());
+    // Loads listing rows by id, keeping the order of the given ids
+    private List<ProductListingView> findListingsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ProductListingView> byId = new HashMap<>();
+        productRepository.findListingsByIdIn(ids).forEach(p -> byId.put(p.getId(), p));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Saved flags resolved with one IN query per page instead of one exists query per product
+    private List<ProductResponse> toResponses(Long currentUserId, List<ProductListingView> listings) {
+        Set<Long> savedIds = currentUserId == null || listings.isEmpty()
+                ? Collections.emptySet()
+                : savedItemRepository.findSavedProductIds(
+                        currentUserId, listings.stream().map(ProductListingView::getId).toList());
+        return listings.stream().map(p -> p.toResponse(savedIds.contains(p.getId()))).toList();
+    }
 
+    private ProductResponse mapToResponse(Product product, boolean isSaved) {
         User seller = product.getSeller();
         UserResponse sellerResponse = UserResponse.builder()
                 .id(seller.getId())
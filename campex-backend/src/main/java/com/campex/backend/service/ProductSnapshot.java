@@ -0,0 +1,44 @@
+package com.campex.backend.service;
+
+import com.campex.backend.model.Product;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of the product fields that derived read structures (caches, indexes) are keyed on,
+ * captured before a mutation so listeners can see what the product looked like.
+ */
+@Value
+public class ProductSnapshot {
+
+    Long id;
+    Long sellerId;
+    String title;
+    String category;
+    String priceType; // FREE, NEGOTIABLE or FIXED - same buckets as the feed's priceType filter
+    String status;
+    LocalDateTime createdAt;
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(
+                product.getId(),
+                product.getSeller() != null ? product.getSeller().getId() : null,
+                product.getTitle(),
+                product.getCategory(),
+                priceTypeOf(product.isFree(), product.isNegotiable()),
+                product.getStatus(),
+                product.getCreatedAt());
+    }
+
+    public static String priceTypeOf(boolean isFree, boolean isNegotiable) {
+        if (isFree) {
+            return "FREE";
+        }
+        return isNegotiable ? "NEGOTIABLE" : "FIXED";
+    }
+
+    public boolean isActive() {
+        return "ACTIVE".equals(status);
+    }
+}
@@ -0,0 +1,168 @@
+package com.campex.backend.service;
+
+import com.campex.backend.dto.response.SuggestionResponse;
+import com.campex.backend.model.Product;
+import com.campex.backend.repository.ProductRepository;
+import com.campex.backend.util.SearchTermUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Typeahead over ACTIVE listings: sorted maps from lower-cased title terms and categories to the number
+ * of active listings containing them. A lookup walks the prefix range and keeps the top N in a small heap,
+ * so it never touches the database. Built at startup and kept current by ProductService writes; the
+ * indexed title/category per product id makes every write idempotent, so replays can't double count.
+ * Rebuilt every app.suggestions.refresh-ms so listings changed through other instances show up.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggestionIndex implements ProductChangeListener {
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingInt(Suggestion::count)
+            .thenComparing(Suggestion::text, Comparator.reverseOrder());
+
+    private final ProductRepository productRepository;
+
+    private final RebuildableIndex<Maps> index = new RebuildableIndex<>(new Maps());
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.suggestions.refresh-ms:300000}",
+            initialDelayString = "${app.suggestions.refresh-ms:300000}")
+    public void rebuild() {
+        index.startRebuild();
+        long start = System.currentTimeMillis();
+        Maps fresh = new Maps();
+        try {
+            productRepository.findSuggestionSources("ACTIVE").forEach(row ->
+                    fresh.put(row.getId(), row.getTitle(), row.getCategory()));
+        } catch (Exception e) {
+            log.error("Failed to build product suggestion index, keeping the current suggestions", e);
+            index.abortRebuild();
+            return;
+        }
+
+        int terms = fresh.terms.size();
+        int categories = fresh.categories.size();
+        index.finishRebuild(fresh);
+        log.info("Product suggestion index built: {} terms, {} categories in {} ms",
+                terms, categories, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Top completions for a prefix, most listed first. Categories and title terms are ranked together.
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        String key = prefix == null ? "" : prefix.trim().toLowerCase();
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<Suggestion> top = new PriorityQueue<>(limit + 1, RANKING);
+        index.read(maps -> {
+            collect(maps.categories, key, "CATEGORY", limit, top);
+            collect(maps.terms, key, "TERM", limit, top);
+            return top;
+        });
+
+        List<Suggestion> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING.reversed());
+        return ranked.stream()
+                .map(s -> SuggestionResponse.builder().text(s.text()).type(s.type()).count(s.count()).build())
+                .toList();
+    }
+
+    @Override
+    public void onProductSaved(ProductSnapshot before, Product after) {
+        ProductSnapshot current = ProductSnapshot.of(after);
+        index.write(maps -> {
+            maps.remove(current.getId());
+            if (current.isActive()) {
+                maps.put(current.getId(), current.getTitle(), current.getCategory());
+            }
+        });
+    }
+
+    @Override
+    public void onProductDeleted(ProductSnapshot before) {
+        index.write(maps -> maps.remove(before.getId()));
+    }
+
+    private static void collect(TreeMap<String, Counted> source, String prefix, String type, int limit,
+                                PriorityQueue<Suggestion> top) {
+        for (Counted counted : source.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            Suggestion candidate = new Suggestion(counted.text, type, counted.count);
+            if (top.size() < limit) {
+                top.add(candidate);
+            } else if (RANKING.compare(candidate, top.peek()) > 0) {
+                top.poll();
+                top.add(candidate);
+            }
+        }
+    }
+
+    private static final class Maps {
+        final TreeMap<String, Counted> terms = new TreeMap<>();
+        final TreeMap<String, Counted> categories = new TreeMap<>();
+        final Map<Long, String[]> indexed = new HashMap<>(); // product id -> {title, category}
+
+        void put(Long id, String title, String category) {
+            if (indexed.putIfAbsent(id, new String[]{title, category}) == null) {
+                adjust(title, category, 1);
+            }
+        }
+
+        void remove(Long id) {
+            String[] previous = indexed.remove(id);
+            if (previous != null) {
+                adjust(previous[0], previous[1], -1);
+            }
+        }
+
+        private void adjust(String title, String category, int delta) {
+            for (String term : SearchTermUtils.tokenize(title)) {
+                if (term.length() >= MIN_TERM_LENGTH) {
+                    adjust(terms, term, term, delta);
+                }
+            }
+            if (category != null && !category.isBlank()) {
+                adjust(categories, category.toLowerCase(), category, delta);
+            }
+        }
+
+        private static void adjust(TreeMap<String, Counted> map, String key, String text, int delta) {
+            Counted counted = map.computeIfAbsent(key, k -> new Counted(text));
+            counted.count += delta;
+            if (counted.count <= 0) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private static final class Counted {
+        final String text;
+        int count;
+
+        Counted(String text) {
+            this.text = text;
+        }
+    }
+
+    private record Suggestion(String text, String type, int count) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.campex.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Sends the FCM push of a notification stored by NotificationService.notifyDurably
+ */
+@Component
+@RequiredArgsConstructor
+public class PushJobHandler implements JobHandler {
+
+    public static final String TYPE = "PUSH";
+
+    private final NotificationService notificationService;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(Map<String, Object> payload) throws Exception {
+        notificationService.push(((Number) payload.get("userId")).longValue(), (String) payload.get("title"),
+                (String) payload.get("body"), (String) payload.get("type"));
+    }
+}
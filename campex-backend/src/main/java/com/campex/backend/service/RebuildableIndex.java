@@ -0,0 +1,92 @@
+package com.campex.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Holder for an in-memory index that is rebuilt from the database and kept current by writes in between.
+ * <p>
+ * A rebuild reads the database without holding the lock. Writes that arrive meanwhile are applied to the
+ * current data and also queued, then replayed onto the fresh data when it is swapped in, so nothing written
+ * during a rebuild is lost. Writes must therefore be idempotent.
+ */
+final class RebuildableIndex<T> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private T data;
+
+    private boolean rebuilding = false;
+    private final List<Consumer<T>> pendingWrites = new ArrayList<>();
+
+    RebuildableIndex(T initial) {
+        this.data = initial;
+    }
+
+    <R> R read(Function<T, R> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(data);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void write(Consumer<T> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(data);
+            if (rebuilding) {
+                pendingWrites.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Start queueing writes for a rebuild. Follow with {@link #finishRebuild} or {@link #abortRebuild}.
+     */
+    void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pendingWrites.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Swap in freshly built data, replaying the writes queued since {@link #startRebuild}. Returns the replaced data.
+     */
+    T finishRebuild(T fresh) {
+        lock.writeLock().lock();
+        try {
+            T previous = data;
+            pendingWrites.forEach(change -> change.accept(fresh));
+            pendingWrites.clear();
+            rebuilding = false;
+            data = fresh;
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Give up on a rebuild and keep the current data
+     */
+    void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = false;
+            pendingWrites.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.campex.backend.repository.UserRepository;
 import com.campex.backend.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 
@@ -20,64 +21,42 @@ public class ReportService {
     private final com.campex.backend.repository.ProductRepository productRepository;
     private final EmailService emailService;
 
+    @Transactional
     public void createReport(CreateReportRequest request) {
-        try {
-            System.err.println("DEBUG: Starting createReport");
-            String uid = SecurityUtils.getCurrentFirebaseUid();
-            System.err.println("DEBUG: UID: " + uid);
-            
-            if (uid == null) {
-                throw new IllegalArgumentException("User not authenticated");
-            }
-            User reporter = userRepository.findByFirebaseUid(uid)
-                    .orElseThrow(() -> new IllegalArgumentException("User profile not created. Please create your profile first."));
-            System.err.println("DEBUG: Reporter found: " + reporter.getId());
-
-            User reportedUser = null;
-            if (request.getReportedUserId() != null) {
-                reportedUser = userRepository.findById(request.getReportedUserId())
-                        .orElse(null);
-                System.err.println("DEBUG: Reported User found: " + (reportedUser != null ? reportedUser.getId() : "null"));
-            }
-
-            com.campex.backend.model.Product reportedProduct = null;
-            if (request.getReportedProductId() != null) {
-                reportedProduct = productRepository.findById(request.getReportedProductId())
-                        .orElse(null);
-                System.err.println("DEBUG: Reported Product found: " + (reportedProduct != null ? reportedProduct.getId() : "null"));
-            }
-
-            Report report = Report.builder()
-                    .reporter(reporter)
-                    .reportedUser(reportedUser)
-                    .reportedProduct(reportedProduct)
-                    .reportType(request.getReportType())
-                    .description(request.getDescription())
-                    .status("PENDING")
-                    .createdAt(LocalDateTime.now())
-                    .build();
-
-            System.err.println("DEBUG: Saving report...");
-            reportRepository.save(report);
-            System.err.println("DEBUG: Report saved successfully with ID: " + report.getId());
+        String uid = SecurityUtils.getCurrentFirebaseUid();
+        if (uid == null) {
+            throw new IllegalArgumentException("User not authenticated");
+        }
+        User reporter = userRepository.findByFirebaseUid(uid)
+                .orElseThrow(() -> new IllegalArgumentException("User profile not created. Please create your profile first."));
 
-            // Send Email to Admin (Use synchronous method, but email failure won't break report creation)
-            try {
-                System.err.println("DEBUG: Attempting to send email...");
-                sendReportEmail(report);
-                System.err.println("DEBUG: Email attempt completed (check logs for success/failure)");
-            } catch (Exception e) {
-                System.err.println("DEBUG: Failed to send report email: " + e.getMessage());
-                e.printStackTrace();
-                // Email failure is non-critical - report is already saved successfully
-                // The EmailService will log detailed error information
-            }
+        User reportedUser = null;
+        if (request.getReportedUserId() != null) {
+            reportedUser = userRepository.findById(request.getReportedUserId())
+                    .orElse(null);
+        }
 
-        } catch (Exception e) {
-            System.err.println("CRITICAL ERROR in createReport: " + e.getMessage());
-            e.printStackTrace();
-            throw e; // Check GlobalExceptionHandler
+        com.campex.backend.model.Product reportedProduct = null;
+        if (request.getReportedProductId() != null) {
+            reportedProduct = productRepository.findById(request.getReportedProductId())
+                    .orElse(null);
         }
+
+        Report report = Report.builder()
+                .reporter(reporter)
+                .reportedUser(reportedUser)
+                .reportedProduct(reportedProduct)
+                .reportType(request.getReportType())
+                .description(request.getDescription())
+                .status("PENDING")
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        reportRepository.save(report);
+
+        // Queue the email to Admin with the report. A failed enqueue fails the request: the report
+        // transaction can't commit after a failed statement anyway.
+        sendReportEmail(report);
     }
 
     private void sendReportEmail(Report report) {
@@ -101,7 +80,7 @@ public class ReportService {
 
         body.append("\nPlease check the admin dashboard for more details.");
 
-        // Use synchronous method for critical report emails to ensure they're sent
-        emailService.sendSimpleMessageSync(to, subject, body.toString());
+        // Durable job committed with the report: retried until sent, never lost on restart
+        emailService.sendDurably(to, subject, body.toString());
     }
 }
\ No newline at end of file
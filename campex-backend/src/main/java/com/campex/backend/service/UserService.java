@@ -13,6 +13,7 @@ import com.campex.backend.repository.ProductRepository;
 import com.campex.backend.repository.SavedItemRepository;
 import com.campex.backend.repository.UserRepository;
 import com.campex.backend.repository.NotificationRepository;
+import com.campex.backend.repository.BroadcastNotificationStateRepository;
 import com.campex.backend.repository.MessageRepository;
 import com.campex.backend.repository.ConversationRepository;
 import com.campex.backend.repository.ItemRequestRepository;
@@ -26,6 +27,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,10 +39,15 @@ public class UserService {
     private final SavedItemRepository savedItemRepository;
     private final BlockedUserRepository blockedUserRepository;
     private final NotificationRepository notificationRepository;
+    private final BroadcastNotificationStateRepository broadcastNotificationStateRepository;
     private final MessageRepository messageRepository;
     private final ConversationRepository conversationRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final CampaignInterestRepository campaignInterestRepository;
+    private final ProductService productService;
+    private final ProductCatalogVersion productCatalogVersion;
+    private final BlockGraphCache blockGraphCache;
+    private final BadgeCounterService badgeCounterService;
 
     public UserResponse getMyProfile() {
         User user = getCurrentUser();
@@ -103,24 +110,37 @@ public class UserService {
         // Always update profile photo URL when present in request (allows null to remove photo)
         user.setProfilePhotoUrl(request.getProfilePhotoUrl());
         
-        return mapToUserResponse(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        // Feed responses show the seller's name and photo
+        productCatalogVersion.bumpAfterCommit();
+        return mapToUserResponse(savedUser);
     }
 
     public List<ProductResponse> getMyListings(String status) {
         User user = getCurrentUser();
         String queryStatus = status != null ? status : "ACTIVE";
         
-        return productRepository.findBySellerIdAndStatus(user.getId(), queryStatus, Pageable.unpaged())
-                .stream()
-                .map(this::mapToProductResponse)
+        List<Product> products = productRepository
+                .findBySellerIdAndStatus(user.getId(), queryStatus, Pageable.unpaged())
+                .getContent();
+        if (products.isEmpty()) {
+            return List.of();
+        }
+
+        // Resolve saved flags for all listings with one IN query
+        Set<Long> savedIds = savedItemRepository.findSavedProductIds(
+                user.getId(), products.stream().map(Product::getId).toList());
+        return products.stream()
+                .map(product -> mapToProductResponse(product, savedIds.contains(product.getId())))
                 .collect(Collectors.toList());
     }
 
     public List<ProductResponse> getSavedItems() {
         User user = getCurrentUser();
-        return savedItemRepository.findByUserIdOrderBySavedAtDesc(user.getId(), Pageable.unpaged())
+        // Products and sellers are fetched with the saved items; every item here is saved by definition
+        return savedItemRepository.findWithProductByUserId(user.getId())
                 .stream()
-                .map(savedItem -> mapToProductResponse(savedItem.getProduct()))
+                .map(savedItem -> mapToProductResponse(savedItem.getProduct(), true))
                 .collect(Collectors.toList());
     }
 
@@ -141,13 +161,17 @@ public class UserService {
                 .build();
 
         savedItemRepository.save(savedItem);
+        productCatalogVersion.bumpAfterCommit(); // isSaved is part of feed responses
     }
 
     @Transactional
     public void unsaveItem(Long productId) {
         User user = getCurrentUser();
         savedItemRepository.findByUserIdAndProductId(user.getId(), productId)
-                .ifPresent(savedItemRepository::delete);
+                .ifPresent(savedItem -> {
+                    savedItemRepository.delete(savedItem);
+                    productCatalogVersion.bumpAfterCommit(); // isSaved is part of feed responses
+                });
     }
 
     @Transactional
@@ -166,25 +190,29 @@ public class UserService {
                 .build();
 
         blockedUserRepository.save(blockedUser);
+        blockGraphCache.blockedAfterCommit(blocker.getId(), blocked.getId());
     }
 
     @Transactional
     public void unblockUser(Long blockedId) {
         User blocker = getCurrentUser();
         blockedUserRepository.findByBlockerIdAndBlockedId(blocker.getId(), blockedId)
-                .ifPresent(blockedUserRepository::delete);
+                .ifPresent(blockedUser -> {
+                    blockedUserRepository.delete(blockedUser);
+                    blockGraphCache.unblockedAfterCommit(blocker.getId(), blockedId);
+                });
     }
 
     public List<UserResponse> getBlockedUsers() {
         User blocker = getCurrentUser();
-        return blockedUserRepository.findByBlockerId(blocker.getId()).stream()
-                .map(blocked -> mapToUserResponse(blocked.getBlocked()))
+        return blockedUserRepository.findBlockedUsers(blocker.getId()).stream()
+                .map(this::mapToUserResponse)
                 .toList();
     }
 
     public boolean isUserBlocked(Long userId) {
         User currentUser = getCurrentUser();
-        return blockedUserRepository.existsByBlockerIdAndBlockedId(currentUser.getId(), userId);
+        return blockGraphCache.hasBlocked(currentUser.getId(), userId);
     }
 
     @Transactional
@@ -197,14 +225,14 @@ public class UserService {
             // Delete in correct order to avoid foreign key constraints
             
             // 1. Delete all messages involving this user (before conversations)
-            messageRepository.deleteAll(messageRepository.findBySenderId(userId));
-            messageRepository.deleteAll(messageRepository.findByReceiverId(userId));
+            messageRepository.deleteAllByParticipantId(userId);
             
             // 2. Delete all conversations involving this user
-            conversationRepository.deleteAll(conversationRepository.findByUser(userId));
+            conversationRepository.deleteAllByParticipantId(userId);
             
             // 3. Delete all notifications for this user
             notificationRepository.deleteAll(notificationRepository.findByUserId(userId));
+            broadcastNotificationStateRepository.deleteAllByUserId(userId);
             
             // 4. Delete all item requests by this user
             itemRequestRepository.deleteAll(itemRequestRepository.findByRequesterIdOrderByCreatedAtDesc(userId, Pageable.unpaged()));
@@ -215,12 +243,17 @@ public class UserService {
             // 6. Delete all saved items
             savedItemRepository.deleteAll(savedItemRepository.findByUserIdOrderBySavedAtDesc(userId, Pageable.unpaged()));
             
-            // 7. Delete all user's products
-            productRepository.deleteAll(productRepository.findBySellerId(userId, Pageable.unpaged()));
+            // 7. Delete all user's products (and drop them from in-memory product caches once committed)
+            List<Product> products = productRepository.findBySellerId(userId, Pageable.unpaged()).getContent();
+            List<ProductSnapshot> deletedProducts = products.stream().map(ProductSnapshot::of).toList();
+            productRepository.deleteAll(products);
+            productService.publishDeleted(deletedProducts);
             
             // 8. Delete all blocked user relationships (both as blocker and blocked)
             blockedUserRepository.deleteAll(blockedUserRepository.findByBlockerId(userId));
             blockedUserRepository.deleteAll(blockedUserRepository.findByBlockedId(userId));
+            blockGraphCache.evictAfterCommit(userId);
+            badgeCounterService.evictAfterCommit(user);
             
             // 9. Delete the user from database
             userRepository.delete(user);
@@ -264,7 +297,7 @@ public class UserService {
                 .build();
     }
 
-    private ProductResponse mapToProductResponse(Product product) {
+    private ProductResponse mapToProductResponse(Product product, boolean isSaved) {
         User seller = product.getSeller();
         UserResponse sellerResponse = UserResponse.builder()
                 .id(seller.getId())
@@ -273,18 +306,6 @@ public class UserService {
                 .academicYear(seller.getAcademicYear())
                 .build();
 
-        // Safely check if saved (may not have current user in all contexts)
-        boolean isSaved = false;
-        try {
-            User currentUser = getCurrentUser();
-            if (currentUser != null) {
-                isSaved = savedItemRepository.existsByUserIdAndProductId(
-                        currentUser.getId(), product.getId());
-            }
-        } catch (Exception e) {
-            // Ignore - user not authenticated or not available in this context
-        }
-
         return ProductResponse.builder()
                 .id(product.getId())
                 .seller(sellerResponse)
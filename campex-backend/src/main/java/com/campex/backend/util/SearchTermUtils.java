@@ -0,0 +1,29 @@
+package com.campex.backend.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Splits free text into search terms. Shared by the tsquery builder and the in-memory indexes so they all
+ * agree on what a term is.
+ */
+public class SearchTermUtils {
+
+    private static final String NON_TERM_CHARACTERS = "[^\\p{L}\\p{N}]+";
+
+    /**
+     * Lower-cased letter/digit terms in order of first appearance, without duplicates
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : text.toLowerCase().split(NON_TERM_CHARACTERS)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,122 @@
+package com.campex.backend.controller;
+
+import com.campex.backend.dto.request.CreateProductRequest;
+import com.campex.backend.model.Product;
+import com.campex.backend.model.User;
+import com.campex.backend.repository.ProductRepository;
+import com.campex.backend.repository.UserRepository;
+import com.campex.backend.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The feed ETag holds while the catalog is unchanged and moves on the next product write
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.feed-etag.bucket-ms=86400000")
+class ProductFeedETagTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<Long> productIds = new ArrayList<>();
+    private String category;
+    private User seller;
+
+    @BeforeEach
+    void seed() {
+        category = "test-" + UUID.randomUUID();
+        String suffix = UUID.randomUUID().toString();
+        seller = userRepository.save(User.builder()
+                .firebaseUid("test-seller-" + suffix)
+                .email("seller-" + suffix + "@test.campex")
+                .fullName("Test seller")
+                .isVerified(true)
+                .build());
+        productIds.add(productRepository.save(Product.builder()
+                .seller(seller)
+                .title("Test product seeded")
+                .category(category)
+                .price(BigDecimal.ONE)
+                .status("ACTIVE")
+                .build()).getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        productRepository.deleteAllById(productIds);
+        userRepository.delete(seller);
+    }
+
+    @Test
+    void unchangedFeedAnswersNotModified() throws Exception {
+        HttpResponse<String> first = getFeed(null);
+        assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElse(null);
+        assertNotNull(etag, "the feed must carry an ETag");
+
+        HttpResponse<String> repeat = getFeed(etag);
+        assertEquals(304, repeat.statusCode(), "an unchanged feed must answer 304");
+        assertTrue(repeat.body().isEmpty());
+    }
+
+    @Test
+    void productWriteChangesTheETag() throws Exception {
+        String etag = getFeed(null).headers().firstValue("ETag").orElseThrow();
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new org.springframework.security.core.userdetails.User(seller.getFirebaseUid(), "", List.of()),
+                null, List.of()));
+        CreateProductRequest request = new CreateProductRequest();
+        request.setTitle("Test product created");
+        request.setDescription("Created to check that feed ETags change");
+        request.setCategory(category);
+        request.setPrice(BigDecimal.TEN);
+        request.setImages(List.of("https://example.com/test.jpg"));
+        productIds.add(productService.createProduct(request).getId());
+
+        HttpResponse<String> after = getFeed(etag);
+        assertEquals(200, after.statusCode(), "a write must invalidate the previous ETag");
+        assertFalse(etag.equals(after.headers().firstValue("ETag").orElse(null)), "the ETag must change");
+        assertTrue(after.body().contains("Test product created"), "the new listing must be in the response");
+    }
+
+    private HttpResponse<String> getFeed(String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/products?category=" + category)).GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
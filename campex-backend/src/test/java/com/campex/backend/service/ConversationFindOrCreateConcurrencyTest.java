@@ -0,0 +1,105 @@
+package com.campex.backend.service;
+
+import com.campex.backend.dto.response.ConversationResponse;
+import com.campex.backend.model.User;
+import com.campex.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Parallel find-or-create calls for the same pair and product must all land on one live conversation
+@SpringBootTest
+class ConversationFindOrCreateConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User buyer;
+    private User seller;
+
+    @BeforeEach
+    void createUsers() {
+        buyer = userRepository.save(user("buyer"));
+        seller = userRepository.save(user("seller"));
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        jdbcTemplate.update("DELETE FROM conversations WHERE user1_id IN (?, ?) OR user2_id IN (?, ?)",
+                buyer.getId(), seller.getId(), buyer.getId(), seller.getId());
+        userRepository.deleteAll(List.of(buyer, seller));
+    }
+
+    @Test
+    void parallelFindOrCreateYieldsOneConversation() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            // Both sides start the conversation, so the pair arrives in either order
+            User caller = i % 2 == 0 ? buyer : seller;
+            User other = i % 2 == 0 ? seller : buyer;
+            results.add(pool.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        new org.springframework.security.core.userdetails.User(caller.getFirebaseUid(), "", List.of()),
+                        null, List.of()));
+                try {
+                    start.await();
+                    ConversationResponse conversation = messageService.getOrCreateConversation(other.getId(), null);
+                    return conversation.getId();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        start.countDown();
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<Long> result : results) {
+            ids.add(result.get(30, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        assertEquals(1, ids.size());
+        Integer live = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM conversations WHERE LEAST(user1_id, user2_id) = ? AND " +
+                "GREATEST(user1_id, user2_id) = ? AND product_id IS NULL AND deleted_at IS NULL",
+                Integer.class, Math.min(buyer.getId(), seller.getId()), Math.max(buyer.getId(), seller.getId()));
+        assertEquals(1, live);
+    }
+
+    private static User user(String role) {
+        String suffix = UUID.randomUUID().toString();
+        return User.builder()
+                .firebaseUid("test-" + role + "-" + suffix)
+                .email(role + "-" + suffix + "@test.campex")
+                .fullName("Test " + role)
+                .build();
+    }
+}
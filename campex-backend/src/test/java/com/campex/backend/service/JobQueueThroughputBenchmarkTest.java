@@ -0,0 +1,140 @@
+package com.campex.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Drain rate of the job queue with one and two worker instances polling the same table.
+// Each job sleeps briefly in place of an SMTP or FCM round trip.
+@SpringBootTest(properties = {
+        "app.jobs.worker-threads=" + JobQueueThroughputBenchmarkTest.WORKER_THREADS,
+        "app.jobs.poll-interval-ms=50"
+})
+class JobQueueThroughputBenchmarkTest {
+
+    static final int WORKER_THREADS = 4;
+    private static final int JOBS = 2000;
+    private static final long WORK_MS = 2;
+    private static final long TIMEOUT_MS = 120_000;
+
+    private static final Logger log = LoggerFactory.getLogger(JobQueueThroughputBenchmarkTest.class);
+
+    @TestConfiguration
+    static class BenchmarkHandlerConfig {
+        @Bean
+        BenchmarkJobHandler benchmarkJobHandler() {
+            return new BenchmarkJobHandler();
+        }
+    }
+
+    static class BenchmarkJobHandler implements JobHandler {
+        static final String TYPE = "BENCHMARK";
+
+        final Set<Long> seen = ConcurrentHashMap.newKeySet();
+        final AtomicInteger duplicates = new AtomicInteger();
+
+        @Override
+        public String type() {
+            return TYPE;
+        }
+
+        @Override
+        public void handle(Map<String, Object> payload) throws Exception {
+            Thread.sleep(WORK_MS);
+            if (!seen.add(((Number) payload.get("n")).longValue())) {
+                duplicates.incrementAndGet();
+            }
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private List<JobHandler> handlers;
+
+    @Autowired
+    private BenchmarkJobHandler benchmarkJobHandler;
+
+    @AfterEach
+    void deleteJobs() {
+        jdbcTemplate.update("DELETE FROM jobs WHERE type = ?", BenchmarkJobHandler.TYPE);
+    }
+
+    @Test
+    void drainRateWithOneAndTwoInstances() throws Exception {
+        double oneInstance = drain(0);
+
+        JobWorker secondInstance = new JobWorker(jdbcTemplate, transactionTemplate, objectMapper, meterRegistry,
+                handlers, WORKER_THREADS, 20, 50, 300_000);
+        secondInstance.start();
+        double twoInstances;
+        try {
+            twoInstances = drain(1);
+        } finally {
+            secondInstance.stop();
+        }
+
+        log.info("Job queue drain rate: {} jobs/s with 1 instance, {} jobs/s with 2 instances ({} workers each)",
+                Math.round(oneInstance), Math.round(twoInstances), WORKER_THREADS);
+    }
+
+    // Queues JOBS jobs, releases them at once and returns jobs per second until the table is empty
+    private double drain(int round) throws InterruptedException {
+        benchmarkJobHandler.seen.clear();
+        benchmarkJobHandler.duplicates.set(0);
+
+        List<Object[]> rows = new ArrayList<>(JOBS);
+        for (int i = 0; i < JOBS; i++) {
+            rows.add(new Object[]{BenchmarkJobHandler.TYPE, "{\"n\": " + (round * JOBS + i) + "}"});
+        }
+        // Parked in the future so workers can't start on a half-inserted batch
+        jdbcTemplate.batchUpdate("INSERT INTO jobs (type, payload, status, attempts, max_attempts, run_at, created_at) " +
+                "VALUES (?, CAST(? AS jsonb), 'PENDING', 0, 1, now() + INTERVAL '1 hour', now())", rows);
+
+        long start = System.nanoTime();
+        jdbcTemplate.update("UPDATE jobs SET run_at = now() WHERE type = ?", BenchmarkJobHandler.TYPE);
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (remaining() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(0, remaining(), "jobs left after " + TIMEOUT_MS + " ms");
+        assertEquals(JOBS, benchmarkJobHandler.seen.size());
+        assertEquals(0, benchmarkJobHandler.duplicates.get(), "jobs run more than once");
+        return JOBS / seconds;
+    }
+
+    private int remaining() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM jobs WHERE type = ?", Integer.class,
+                BenchmarkJobHandler.TYPE);
+    }
+}
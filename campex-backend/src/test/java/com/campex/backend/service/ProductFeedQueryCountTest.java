@@ -0,0 +1,201 @@
+package com.campex.backend.service;
+
+import com.campex.backend.model.Product;
+import com.campex.backend.model.SavedItem;
+import com.campex.backend.model.User;
+import com.campex.backend.repository.ProductRepository;
+import com.campex.backend.repository.SavedItemRepository;
+import com.campex.backend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Saved flags and sellers are resolved in batches, so a page costs the same statements at any size
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.search.in-memory.enabled=false"
+})
+class ProductFeedQueryCountTest {
+
+    private static final int SMALL = 2;
+    private static final int LARGE = 24;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SavedItemRepository savedItemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private final List<SavedItem> savedItems = new ArrayList<>();
+    private String category;
+    private User viewer;
+    private User smallSeller;
+    private User largeSeller;
+    private Product savedProduct;
+    private Product unsavedProduct;
+
+    @BeforeEach
+    void seed() {
+        category = "test-" + UUID.randomUUID();
+        viewer = userRepository.save(user("viewer"));
+        smallSeller = userRepository.save(user("seller"));
+        largeSeller = userRepository.save(user("seller"));
+        users.addAll(List.of(viewer, smallSeller, largeSeller));
+
+        List<Product> smallListings = listings(smallSeller, SMALL, 0);
+        List<Product> largeListings = listings(largeSeller, LARGE, SMALL);
+
+        // The viewer saves every large-seller listing, the small seller saves two of them
+        for (Product product : largeListings) {
+            savedItems.add(savedItemRepository.save(SavedItem.builder().user(viewer).product(product).build()));
+        }
+        for (Product product : largeListings.subList(0, SMALL)) {
+            savedItems.add(savedItemRepository.save(SavedItem.builder().user(smallSeller).product(product).build()));
+        }
+        savedProduct = largeListings.get(0);
+        unsavedProduct = smallListings.get(0);
+
+        signIn(viewer);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        savedItemRepository.deleteAll(savedItems);
+        productRepository.deleteAll(products);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void feedPageStatementCountDoesNotGrowWithPageSize() {
+        // Both pages are full, so both run the page's COUNT query
+        long small = offsetPageStatements(SMALL);
+        long large = offsetPageStatements(LARGE);
+        assertEquals(small, large, "statements per feed page must not depend on the page size");
+    }
+
+    @Test
+    void cursorPageStatementCountDoesNotGrowWithPageSize() {
+        // Both pages have a next page, so both fetch the extra look-ahead row
+        long small = cursorPageStatements(SMALL);
+        long large = cursorPageStatements(LARGE);
+        assertEquals(small, large, "statements per cursor page must not depend on the page size");
+    }
+
+    @Test
+    void cachedFirstPageStatementCountDoesNotGrowWithPageSize() {
+        // The cache key includes the page size, so both calls miss and load from the database
+        long small = firstPageStatements(SMALL);
+        long large = firstPageStatements(LARGE);
+        assertEquals(small, large, "statements for an uncached first page must not depend on the page size");
+    }
+
+    @Test
+    void productDetailStatementCountDoesNotDependOnSavedStateOrSeller() {
+        long unsaved = statements(() -> productService.getProductById(unsavedProduct.getId()));
+        long saved = statements(() -> productService.getProductById(savedProduct.getId()));
+        assertEquals(unsaved, saved, "statements for product detail must not depend on the saved flag or seller");
+    }
+
+    @Test
+    void myListingsStatementCountDoesNotGrowWithListingCount() {
+        signIn(smallSeller);
+        long small = statements(() -> userService.getMyListings(null));
+        signIn(largeSeller);
+        long large = statements(() -> userService.getMyListings(null));
+        assertEquals(small, large, "statements for my listings must not depend on the number of listings");
+    }
+
+    @Test
+    void savedItemsStatementCountDoesNotGrowWithSavedCount() {
+        signIn(smallSeller);
+        long small = statements(() -> userService.getSavedItems());
+        signIn(viewer);
+        long large = statements(() -> userService.getSavedItems());
+        assertEquals(small, large, "statements for saved items must not depend on the number of saved items");
+    }
+
+    // Price sort skips the first-page cache and the in-memory index, so every call reaches the database
+    private long offsetPageStatements(int size) {
+        return statements(() -> productService.getAllProducts(
+                category, null, null, null, null, null, "price_asc", PageRequest.of(0, size)));
+    }
+
+    // An empty cursor starts the newest-first keyset walk
+    private long cursorPageStatements(int size) {
+        return statements(() -> productService.getProductsByCursor(
+                category, null, null, null, null, null, null, "", size));
+    }
+
+    // Newest-first page 0 goes through the first-page cache
+    private long firstPageStatements(int size) {
+        return statements(() -> productService.getAllProducts(
+                category, null, null, null, null, null, null, PageRequest.of(0, size)));
+    }
+
+    private long statements(Runnable call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Product> listings(User seller, int count, int firstPrice) {
+        List<Product> listings = new ArrayList<>();
+        for (int p = 0; p < count; p++) {
+            listings.add(productRepository.save(Product.builder()
+                    .seller(seller)
+                    .title("Test product " + seller.getId() + "-" + p)
+                    .category(category)
+                    .price(BigDecimal.valueOf(firstPrice + p + 1))
+                    .status("ACTIVE")
+                    .build()));
+        }
+        products.addAll(listings);
+        return listings;
+    }
+
+    private static void signIn(User user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new org.springframework.security.core.userdetails.User(user.getFirebaseUid(), "", List.of()),
+                null, List.of()));
+    }
+
+    private static User user(String role) {
+        String suffix = UUID.randomUUID().toString();
+        return User.builder()
+                .firebaseUid("test-" + role + "-" + suffix)
+                .email(role + "-" + suffix + "@test.campex")
+                .fullName("Test " + role)
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.campex.backend.service;
+
+import com.campex.backend.dto.response.ProductResponse;
+import com.campex.backend.model.Product;
+import com.campex.backend.model.User;
+import com.campex.backend.repository.ProductRepository;
+import com.campex.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Price bounds are inclusive and count free listings as 0, and the price sorts order by (price, id),
+// the same on the full-text search path as on the plain filter path
+@SpringBootTest(properties = "app.search.in-memory.enabled=false")
+class ProductPriceFilterTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private String category;
+    private String word;
+    private Long free;
+    private Long five;
+    private Long firstTen;
+    private Long secondTen;
+    private Long twenty;
+    private Long twentyFive;
+
+    @BeforeEach
+    void seed() {
+        category = "test-" + UUID.randomUUID();
+        word = randomWord();
+        User viewer = userRepository.save(user("viewer"));
+        User seller = userRepository.save(user("seller"));
+        users.addAll(List.of(viewer, seller));
+
+        free = listing(seller, null, true);
+        five = listing(seller, "5.00", false);
+        firstTen = listing(seller, "10.00", false);
+        secondTen = listing(seller, "10.00", false);
+        twenty = listing(seller, "20.00", false);
+        twentyFive = listing(seller, "25.00", false);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new org.springframework.security.core.userdetails.User(viewer.getFirebaseUid(), "", List.of()),
+                null, List.of()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        productRepository.deleteAll(products);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void filterPathHonoursPriceBoundsAndOrder() {
+        assertPriceBoundsAndOrder(null);
+    }
+
+    @Test
+    void fullTextPathHonoursPriceBoundsAndOrder() {
+        assertPriceBoundsAndOrder(word);
+    }
+
+    private void assertPriceBoundsAndOrder(String search) {
+        assertEquals(List.of(free, five, firstTen, secondTen, twenty, twentyFive),
+                ids(search, null, null, "price_asc"), "ascending price, then id");
+        assertEquals(List.of(twentyFive, twenty, secondTen, firstTen, five, free),
+                ids(search, null, null, "price_desc"), "descending price, then id");
+        assertEquals(List.of(firstTen, secondTen, twenty),
+                ids(search, "10.00", "20.00", "price_asc"), "both bounds are inclusive");
+        assertEquals(List.of(free, five),
+                ids(search, null, "5.00", "price_asc"), "a free listing counts as price 0");
+        assertEquals(List.of(five, firstTen, secondTen, twenty, twentyFive),
+                ids(search, "0.01", null, "price_asc"), "a minimum above 0 leaves out free listings");
+        assertEquals(List.of(),
+                ids(search, "10.01", "19.99", "price_asc"), "nothing lies strictly between the seeded prices");
+    }
+
+    private List<Long> ids(String search, String minPrice, String maxPrice, String sort) {
+        return productService.getAllProducts(category, null, null, search,
+                        minPrice == null ? null : new BigDecimal(minPrice),
+                        maxPrice == null ? null : new BigDecimal(maxPrice),
+                        sort, PageRequest.of(0, 20))
+                .getContent().stream().map(ProductResponse::getId).toList();
+    }
+
+    private Long listing(User seller, String price, boolean isFree) {
+        Product product = productRepository.save(Product.builder()
+                .seller(seller)
+                .title("Test " + word + " listing")
+                .category(category)
+                .price(price == null ? null : new BigDecimal(price))
+                .isFree(isFree)
+                .status("ACTIVE")
+                .build());
+        products.add(product);
+        return product.getId();
+    }
+
+    // Letters only, so the full-text parser keeps it as a single word
+    private static String randomWord() {
+        StringBuilder word = new StringBuilder("qz");
+        for (int i = 0; i < 10; i++) {
+            word.append((char) ('a' + ThreadLocalRandom.current().nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static User user(String role) {
+        String suffix = UUID.randomUUID().toString();
+        return User.builder()
+                .firebaseUid("test-" + role + "-" + suffix)
+                .email(role + "-" + suffix + "@test.campex")
+                .fullName("Test " + role)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.campex.backend.service;
+
+import com.campex.backend.dto.request.CreateProductRequest;
+import com.campex.backend.dto.response.ProductResponse;
+import com.campex.backend.model.Product;
+import com.campex.backend.model.User;
+import com.campex.backend.repository.ProductRepository;
+import com.campex.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// A write through ProductService drops cached first pages for its category, so the next read sees it
+@SpringBootTest(properties = {
+        "app.search.in-memory.enabled=false",
+        "app.feed-cache.ttl-ms=600000"
+})
+class ProductQueryCacheInvalidationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private String category;
+    private User viewer;
+    private User seller;
+
+    @BeforeEach
+    void seed() {
+        category = "test-" + UUID.randomUUID();
+        viewer = userRepository.save(user("viewer", false));
+        seller = userRepository.save(user("seller", true));
+        users.addAll(List.of(viewer, seller));
+        for (int p = 0; p < 3; p++) {
+            productIds.add(productRepository.save(Product.builder()
+                    .seller(seller)
+                    .title("Test product " + p)
+                    .category(category)
+                    .price(BigDecimal.valueOf(p + 1))
+                    .status("ACTIVE")
+                    .build()).getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        productRepository.deleteAllById(productIds);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void markingAProductSoldDropsItFromTheCachedFirstPage() {
+        assertEquals(productIds.size(), firstPageIds().size());
+        assertCachedRead();
+
+        signIn(seller);
+        productService.markAsSold(productIds.get(0));
+
+        double missesBefore = cacheRequests("miss");
+        List<Long> ids = firstPageIds();
+        assertEquals(missesBefore + 1, cacheRequests("miss"), "the write must invalidate the cached page");
+        assertEquals(productIds.size() - 1, ids.size());
+        assertFalse(ids.contains(productIds.get(0)), "a sold product must leave the ACTIVE feed");
+    }
+
+    @Test
+    void creatingAProductPutsItAtTheTopOfTheCachedFirstPage() {
+        assertEquals(productIds.size(), firstPageIds().size());
+        assertCachedRead();
+
+        signIn(seller);
+        CreateProductRequest request = new CreateProductRequest();
+        request.setTitle("Test product created");
+        request.setDescription("Created to check first-page cache invalidation");
+        request.setCategory(category);
+        request.setPrice(BigDecimal.TEN);
+        request.setImages(List.of("https://example.com/test.jpg"));
+        Long createdId = productService.createProduct(request).getId();
+        productIds.add(createdId);
+
+        List<Long> ids = firstPageIds();
+        assertEquals(productIds.size(), ids.size());
+        assertEquals(createdId, ids.get(0), "the newest product must lead the newest-first feed");
+    }
+
+    // Newest-first page 0 is the path served by the first-page cache
+    private List<Long> firstPageIds() {
+        signIn(viewer);
+        Page<ProductResponse> page = productService.getAllProducts(
+                category, null, null, null, null, null, null, PageRequest.of(0, 10));
+        return page.getContent().stream().map(ProductResponse::getId).toList();
+    }
+
+    // A repeated read with no write in between is answered from the cache, so the checks above are meaningful
+    private void assertCachedRead() {
+        double hitsBefore = cacheRequests("hit");
+        firstPageIds();
+        assertEquals(hitsBefore + 1, cacheRequests("hit"), "an unchanged first page must come from the cache");
+    }
+
+    private double cacheRequests(String result) {
+        return meterRegistry.counter("campex.feed.cache.requests", "result", result).count();
+    }
+
+    private static void signIn(User user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new org.springframework.security.core.userdetails.User(user.getFirebaseUid(), "", List.of()),
+                null, List.of()));
+    }
+
+    private static User user(String role, boolean verified) {
+        String suffix = UUID.randomUUID().toString();
+        return User.builder()
+                .firebaseUid("test-" + role + "-" + suffix)
+                .email(role + "-" + suffix + "@test.campex")
+                .fullName("Test " + role)
+                .isVerified(verified)
+                .build();
+    }
+}
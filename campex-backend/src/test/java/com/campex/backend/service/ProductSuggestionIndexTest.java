@@ -0,0 +1,124 @@
+package com.campex.backend.service;
+
+import com.campex.backend.dto.response.SuggestionResponse;
+import com.campex.backend.model.Product;
+import com.campex.backend.model.User;
+import com.campex.backend.repository.ProductRepository;
+import com.campex.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Completions for a prefix are ranked by active listing count, ties broken alphabetically
+@SpringBootTest
+class ProductSuggestionIndexTest {
+
+    @Autowired
+    private ProductSuggestionIndex suggestionIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final List<Product> products = new ArrayList<>();
+    private User seller;
+    private String prefix;
+    private Product alphaBravoDelta;
+
+    @BeforeEach
+    void seed() {
+        // A random prefix keeps other listings in the database out of the results
+        prefix = "qz" + UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+        seller = userRepository.save(User.builder()
+                .firebaseUid("test-seller-" + prefix)
+                .email("seller-" + prefix + "@test.campex")
+                .fullName("Test seller")
+                .build());
+
+        listing("ACTIVE", "alpha", "bravo");
+        listing("ACTIVE", "alpha", "bravo");
+        alphaBravoDelta = listing("ACTIVE", "alpha", "bravo", "delta");
+        listing("ACTIVE", "delta", "charlie");
+        listing("ACTIVE", "echo");
+        listing("SOLD", "echo", "echo");
+        listing("SOLD", "echo");
+
+        // Pick up the seeded rows the same way startup does
+        suggestionIndex.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        productRepository.deleteAll(products);
+        userRepository.delete(seller);
+        suggestionIndex.rebuild();
+    }
+
+    @Test
+    void ranksByListingCountThenAlphabetically() {
+        List<SuggestionResponse> suggestions = suggestionIndex.suggest(prefix, 10);
+
+        assertEquals(List.of("alpha", "bravo", "delta", "charlie", "echo"), texts(suggestions));
+        assertEquals(List.of(3L, 3L, 2L, 1L, 1L), suggestions.stream().map(SuggestionResponse::getCount).toList());
+    }
+
+    @Test
+    void limitKeepsTheHighestRanked() {
+        assertEquals(List.of("alpha", "bravo", "delta"), texts(suggestionIndex.suggest(prefix, 3)));
+    }
+
+    @Test
+    void longerPrefixNarrowsAndIgnoresCase() {
+        assertEquals(List.of("delta"), texts(suggestionIndex.suggest(prefix.toUpperCase() + "D", 10)));
+    }
+
+    @Test
+    void sellingAListingLowersItsTermsRank() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new org.springframework.security.core.userdetails.User(seller.getFirebaseUid(), "", List.of()),
+                null, List.of()));
+        productService.markAsSold(alphaBravoDelta.getId());
+
+        // delta drops to 1 and now ties with charlie and echo, so the tie breaks alphabetically
+        List<SuggestionResponse> suggestions = suggestionIndex.suggest(prefix, 10);
+        assertEquals(List.of("alpha", "bravo", "charlie", "delta", "echo"), texts(suggestions));
+        assertEquals(List.of(2L, 2L, 1L, 1L, 1L), suggestions.stream().map(SuggestionResponse::getCount).toList());
+    }
+
+    private Product listing(String status, String... words) {
+        StringBuilder title = new StringBuilder();
+        for (String word : words) {
+            title.append(prefix).append(word).append(' ');
+        }
+        Product product = productRepository.save(Product.builder()
+                .seller(seller)
+                .title(title.toString().trim())
+                .category("test-" + prefix)
+                .price(BigDecimal.ONE)
+                .status(status)
+                .build());
+        products.add(product);
+        return product;
+    }
+
+    private List<String> texts(List<SuggestionResponse> suggestions) {
+        return suggestions.stream().map(s -> s.getText().substring(prefix.length())).toList();
+    }
+}
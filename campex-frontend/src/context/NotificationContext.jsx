@@ -39,11 +39,15 @@ export const NotificationProvider = ({ children }) => {
     }
   };
 
-  const markAsRead = async (notificationId) => {
+  // Personal notifications and broadcasts have separate ids, so the kind picks the endpoint
+  const markAsRead = async (notification) => {
+    const isBroadcast = notification.kind === 'BROADCAST';
     try {
-      await api.patch(`/api/notifications/${notificationId}/read`);
+      await api.patch(isBroadcast
+        ? `/api/notifications/broadcasts/${notification.id}/read`
+        : `/api/notifications/${notification.id}/read`);
       setNotifications(prev =>
-        prev.map(n => n.id === notificationId ? { ...n, isRead: true } : n)
+        prev.map(n => n.id === notification.id && n.kind === notification.kind ? { ...n, isRead: true } : n)
       );
       setUnreadCount(prev => Math.max(0, prev - 1));
     } catch (error) {
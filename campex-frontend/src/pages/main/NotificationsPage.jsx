@@ -102,8 +102,8 @@ const NotificationsPage = () => {
           ) : (
             filteredNotifications.map((notification) => (
               <div
-                key={notification.id}
-                onClick={() => !notification.isRead && markAsRead(notification.id)}
+                key={`${notification.kind}-${notification.id}`}
+                onClick={() => !notification.isRead && markAsRead(notification)}
                 className={`p-4 hover:bg-gray-50 cursor-pointer transition-colors ${!notification.isRead ? 'bg-primary-50' : ''
                   }`}
               >